@@ -0,0 +1,65 @@
+package com.simpledb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpledb.database.QueryObject;
+import com.simpledb.exceptions.QueryObjectException;
+
+/**
+ * Building queries from entities with <code>addValues</code>, with inlined values and in bind parameter mode.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddValuesBenchmark {
+
+	private final Narrow narrow = new Narrow(42);
+	private final Wide wide = new Wide(42);
+
+	@Setup
+	public void setup() {
+		BenchmarkDatabase.registerQueries();
+	}
+
+	@Benchmark
+	public String narrowInline() throws QueryObjectException {
+		return query("narrow", narrow, false);
+	}
+
+	@Benchmark
+	public String narrowBind() throws QueryObjectException {
+		return query("narrow", narrow, true);
+	}
+
+	@Benchmark
+	public String wideInline() throws QueryObjectException {
+		return query("wide", wide, false);
+	}
+
+	@Benchmark
+	public String wideBind() throws QueryObjectException {
+		return query("wide", wide, true);
+	}
+
+	private static String query(String table, Object o, boolean bind) throws QueryObjectException {
+		QueryObject q = new QueryObject("INSERT", table);
+		q.setBindParameters(bind);
+		q.addValues(o);
+		return q.getQuery();
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.simpledb.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import com.simpledb.database.DatabaseInfo;
+import com.simpledb.database.DatabaseManager;
+import com.simpledb.database.DatabaseTable;
+import com.simpledb.database.QueryObject;
+
+/**
+ * A SQLite database in a temporary directory filled with {@link Narrow} and {@link Wide} rows.<br>
+ * The integer columns of every seventh wide row are NULL.
+ * */
+final class BenchmarkDatabase {
+
+	static {
+		registerQueries();
+	}
+
+	/**
+	 * Registers the INSERT template and the SELECTALL constructor used by the benchmarks.
+	 * */
+	static void registerQueries() {
+		QueryObject.addQueryTemplate("INSERT", q -> "INSERT INTO " + q.getTableName() + " " + QueryObject.constructValuePlaceholderList(q.getValueList()));
+		QueryObject.addQueryConstructor("SELECTALL", q -> "SELECT * FROM " + q.getTableName());
+	}
+
+	private final File directory;
+	private final DatabaseManager manager = new DatabaseManager();
+
+	BenchmarkDatabase(int rows) throws Exception {
+		this.directory = Files.createTempDirectory("simpledb-bench").toFile();
+		DatabaseInfo info = DatabaseManager.getDatabaseInfo(directory.getAbsolutePath(), "bench");
+		manager.createDatabaseConnection(info);
+		fill("narrow", Narrow.COLUMNS, rows, Narrow::new);
+		fill("wide", Wide.COLUMNS, rows, Wide::new);
+		manager.executeUpdate(QueryObject.getQueryObject("UPDATE wide SET value3 = NULL, value6 = NULL, value9 = NULL, value12 = NULL, value15 = NULL WHERE id % 7 = 0"));
+	}
+
+	private <T> void fill(String table, String columns, int rows, IntFunction<T> row) throws Exception {
+		manager.executeUpdate(QueryObject.getQueryObject("CREATE TABLE " + table + " (" + columns + ")"));
+		List<T> objects = new ArrayList<>(rows);
+		for(int i = 0; i < rows; ++i) objects.add(row.apply(i));
+		table(table).insertAll(objects, "INSERT");
+	}
+
+	DatabaseManager getManager() {
+		return manager;
+	}
+
+	DatabaseTable table(String name) {
+		return new DatabaseTable(manager, name);
+	}
+
+	void close() throws Exception {
+		manager.closeConnection();
+		File[] files = directory.listFiles();
+		if(files != null) for(File f : files) f.delete();
+		if(!directory.delete()) throw new IOException("Could not delete " + directory);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.simpledb.benchmarks;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.database.DatabaseObjectConstructor;
+
+/**
+ * An entity with four columns.
+ * */
+@DatabaseObject
+public class Narrow {
+
+	static final String COLUMNS = "id INTEGER PRIMARY KEY, name TEXT, score INTEGER, active BOOLEAN";
+
+	@DatabaseField(columnName = "id", groups = {0, 1}) public int id;
+	@DatabaseField(columnName = "name") public String name;
+	@DatabaseField(columnName = "score") public long score;
+	@DatabaseField(columnName = "active") public boolean active;
+
+	@DatabaseObjectConstructor
+	public Narrow() {}
+
+	public Narrow(int id) {
+		this.id = id;
+		this.name = "name" + id;
+		this.score = id * 31L;
+		this.active = (id & 1) == 0;
+	}
+
+}
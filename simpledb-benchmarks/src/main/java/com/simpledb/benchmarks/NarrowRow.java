@@ -0,0 +1,23 @@
+package com.simpledb.benchmarks;
+
+import com.simpledb.annotations.DatabaseConstructor;
+
+/**
+ * The columns of {@link Narrow} read through a constructor.
+ * */
+public class NarrowRow {
+
+	public final int id;
+	public final String name;
+	public final long score;
+	public final boolean active;
+
+	@DatabaseConstructor(columnName = {"id", "name", "score", "active"})
+	public NarrowRow(int id, String name, long score, boolean active) {
+		this.id = id;
+		this.name = name;
+		this.score = score;
+		this.active = active;
+	}
+
+}
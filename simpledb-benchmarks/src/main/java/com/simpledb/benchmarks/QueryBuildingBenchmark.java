@@ -0,0 +1,56 @@
+package com.simpledb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpledb.database.QueryObject;
+
+/**
+ * SQL generation for value lists of several widths.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBuildingBenchmark {
+
+	@Param({"4", "16", "64"})
+	public int columns;
+
+	private QueryObject values;
+
+	@Setup
+	public void setup() {
+		values = new QueryObject("INSERT", "bench");
+		for(int i = 0; i < columns; ++i) values.addValue("column" + i, "value" + i);
+	}
+
+	@Benchmark
+	public String constructValueList() {
+		return QueryObject.constructValueList(values.getValueList());
+	}
+
+	@Benchmark
+	public String constructKWargList() {
+		return QueryObject.constructKWargList(values.getValueList(), " AND ");
+	}
+
+	@Benchmark
+	public String constructValuePlaceholderList() {
+		return QueryObject.constructValuePlaceholderList(values.getValueList());
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.simpledb.benchmarks;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpledb.database.DatabaseTable;
+import com.simpledb.database.IntColumn;
+import com.simpledb.database.QueryObject;
+import com.simpledb.database.QueryResult;
+
+/**
+ * Row mapping against an embedded SQLite database at several row counts.<br>
+ * <code>getAllDatabaseObject</code> measures the entity path (<code>fillObjectWithData</code>),
+ * <code>getFromResultSet</code> the constructor path and <code>getColumn</code> single column reads.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+	@Param({"100", "10000"})
+	public int rows;
+
+	private BenchmarkDatabase database;
+	private DatabaseTable narrow;
+	private DatabaseTable wide;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		database = new BenchmarkDatabase(rows);
+		narrow = database.table("narrow");
+		wide = database.table("wide");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.close();
+	}
+
+	@Benchmark
+	public List<Narrow> getAllDatabaseObjectNarrow() throws Exception {
+		return narrow.getAllDatabaseObject(Narrow.class, "SELECTALL");
+	}
+
+	@Benchmark
+	public List<Wide> getAllDatabaseObjectWide() throws Exception {
+		return wide.getAllDatabaseObject(Wide.class, "SELECTALL");
+	}
+
+	@Benchmark
+	public List<NarrowRow> getFromResultSet() throws Exception {
+		try(QueryResult result = database.getManager().getResult(new QueryObject("SELECTALL", "narrow"))) {
+			ResultSet rs = result.getResultSet();
+			return QueryObject.getFromResultSet(NarrowRow.class, rs);
+		}
+	}
+
+	@Benchmark
+	public List<String> getColumn() throws Exception {
+		return wide.getColumn(String.class, "SELECTALL", "text1");
+	}
+
+	@Benchmark
+	public List<Integer> getColumnBoxed() throws Exception {
+		return narrow.getColumn(Integer.class, "SELECTALL", "id");
+	}
+
+	@Benchmark
+	public IntColumn getIntColumn() throws Exception {
+		return narrow.getIntColumn("SELECTALL", "id");
+	}
+
+}
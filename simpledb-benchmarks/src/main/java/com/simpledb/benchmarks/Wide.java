@@ -0,0 +1,54 @@
+package com.simpledb.benchmarks;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.database.DatabaseObjectConstructor;
+
+/**
+ * An entity with sixteen columns of mixed types.
+ * */
+@DatabaseObject
+public class Wide {
+
+	static final String COLUMNS = "id INTEGER PRIMARY KEY, text1 TEXT, number2 INTEGER, value3 INTEGER, text4 TEXT, number5 INTEGER, value6 INTEGER, text7 TEXT, number8 INTEGER, value9 INTEGER, text10 TEXT, number11 INTEGER, value12 INTEGER, text13 TEXT, number14 INTEGER, value15 INTEGER";
+
+	@DatabaseField(columnName = "id", groups = {0, 1}) public int id;
+	@DatabaseField(columnName = "text1") public String text1;
+	@DatabaseField(columnName = "number2") public long number2;
+	@DatabaseField(columnName = "value3") public Integer value3;
+	@DatabaseField(columnName = "text4") public String text4;
+	@DatabaseField(columnName = "number5") public long number5;
+	@DatabaseField(columnName = "value6") public Integer value6;
+	@DatabaseField(columnName = "text7") public String text7;
+	@DatabaseField(columnName = "number8") public long number8;
+	@DatabaseField(columnName = "value9") public Integer value9;
+	@DatabaseField(columnName = "text10") public String text10;
+	@DatabaseField(columnName = "number11") public long number11;
+	@DatabaseField(columnName = "value12") public Integer value12;
+	@DatabaseField(columnName = "text13") public String text13;
+	@DatabaseField(columnName = "number14") public long number14;
+	@DatabaseField(columnName = "value15") public Integer value15;
+
+	@DatabaseObjectConstructor
+	public Wide() {}
+
+	public Wide(int id) {
+		this.id = id;
+		this.text1 = "text" + id + "_1";
+		this.number2 = id * 2L;
+		this.value3 = id + 3;
+		this.text4 = "text" + id + "_4";
+		this.number5 = id * 5L;
+		this.value6 = id + 6;
+		this.text7 = "text" + id + "_7";
+		this.number8 = id * 8L;
+		this.value9 = id + 9;
+		this.text10 = "text" + id + "_10";
+		this.number11 = id * 11L;
+		this.value12 = id + 12;
+		this.text13 = "text" + id + "_13";
+		this.number14 = id * 14L;
+		this.value15 = id + 15;
+	}
+
+}
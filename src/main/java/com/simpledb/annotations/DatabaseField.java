@@ -21,5 +21,9 @@ public @interface DatabaseField {
     
     public String columnName() default "";
 	public int[] groups() default 0;
+	/**
+	 * Marks the column as part of the primary or a unique key, the UPSERT command updates the row with the same key.
+	 * */
+	public boolean key() default false;
 
 }
@@ -0,0 +1,191 @@
+package com.simpledb.database;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.simpledb.exceptions.DatabaseManagerException;
+import com.simpledb.exceptions.QueryException;
+
+/**
+ * Runs asynchronous statements on a configurable number of worker threads.<br>
+ * Every worker borrows a pooled connection per statement, so up to {@link DatabaseInfo#getAsyncWorkers()} statements
+ * are in flight at once. With a single worker the statements run in the order they were submitted.<br>
+ * The queue is bounded by {@link DatabaseInfo#getAsyncQueueCapacity()}, a full queue is handled by the {@link AsyncOverflowPolicy}.
+ * Consecutive queued INSERT statements with the same SQL are taken together and run as one JDBC batch,
+ * in group commit mode all statements taken together share one transaction instead.
+ * */
+class AsyncExecutor {
+
+	private final DatabaseManager manager;
+	private final BlockingQueue<AsyncTask<?>> queue;
+	/**
+	 * Held while a worker takes statements from the head of the queue, so a coalesced run is never split by another worker.
+	 * */
+	private final ReentrantLock takeLock = new ReentrantLock();
+	private final AsyncOverflowPolicy overflowPolicy;
+	private final int coalesceSize;
+	private final boolean groupCommit;
+	private final int groupCommitSize;
+	private final long groupCommitDelay;
+	private final AsyncQueueStats stats;
+	private final List<Thread> workers = new ArrayList<>();
+	private volatile boolean running = true;
+
+	AsyncExecutor(DatabaseManager manager, DatabaseInfo info) {
+		this.manager = manager;
+		this.queue = new ArrayBlockingQueue<>(info.getAsyncQueueCapacity());
+		this.overflowPolicy = info.getAsyncOverflowPolicy();
+		this.coalesceSize = Math.min(info.getAsyncCoalesceSize(), info.getBatchSize());
+		this.groupCommit = info.isAsyncGroupCommit();
+		this.groupCommitSize = info.getAsyncGroupCommitSize();
+		this.groupCommitDelay = TimeUnit.MILLISECONDS.toNanos(info.getAsyncGroupCommitDelay());
+		this.stats = new AsyncQueueStats(queue, info.getAsyncQueueCapacity());
+		ThreadFactory factory = info.isAsyncVirtualThreads() ? virtualThreadFactory() : null;
+		for(int i = 0; i < info.getAsyncWorkers(); ++i) {
+			Thread worker;
+			if(factory != null) {
+				worker = factory.newThread(this::work);
+			}else {
+				worker = new Thread(this::work, "simpledb-async-" + i);
+			}
+			workers.add(worker);
+		}
+		for(Thread worker : workers) worker.start();
+	}
+
+	boolean isRunning() {
+		return running;
+	}
+
+	AsyncQueueStats getStats() {
+		return stats;
+	}
+
+	<T> void submit(AsyncTask<T> task) throws DatabaseManagerException {
+		switch(overflowPolicy) {
+		case BLOCK:
+			try {
+				queue.put(task);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				stats.rejected();
+				throw new DatabaseManagerException("Interrupted while waiting for room in the async queue!");
+			}
+			break;
+		case REJECT:
+			if(!queue.offer(task)) {
+				stats.rejected();
+				throw new DatabaseManagerException("Async queue is full!");
+			}
+			break;
+		case DROP_OLDEST:
+			while(!queue.offer(task)) {
+				AsyncTask<?> oldest;
+				takeLock.lock();
+				try {
+					oldest = queue.poll();
+				} finally {
+					takeLock.unlock();
+				}
+				if(oldest != null) {
+					stats.dropped();
+					oldest.fail(new QueryException(oldest.getQuery(), new SQLException("Dropped from the full async queue!")));
+				}
+			}
+			break;
+		}
+		stats.submitted();
+	}
+
+	/**
+	 * Stops the workers. Statements that are still queued fail with an exception.
+	 * */
+	void shutdown() {
+		running = false;
+		for(Thread worker : workers) worker.interrupt();
+		List<AsyncTask<?>> pending = new ArrayList<>();
+		queue.drainTo(pending);
+		for(AsyncTask<?> task : pending) {
+			task.fail(new QueryException(task.getQuery(), new SQLException("Worker stopped before the statement was executed!")));
+		}
+	}
+
+	private void work() {
+		List<AsyncTask<?>> run = new ArrayList<>();
+		while(running) {
+			try {
+				take(run);
+				if(run.size() == 1) {
+					manager.runAsync(run.get(0));
+				}else if(groupCommit) {
+					stats.grouped(run.size());
+					manager.runAsyncGroup(run);
+				}else {
+					stats.coalesced(run.size());
+					manager.runAsyncBatch(run);
+				}
+			} catch (InterruptedException e) {
+				//Interrupted by shutdown() while a group was taken.
+				for(AsyncTask<?> task : run) {
+					task.fail(new QueryException(task.getQuery(), new SQLException("Worker stopped before the statement was executed!")));
+				}
+			} catch (RuntimeException e) {
+				//Keeps the worker alive, the statements of the run that did not complete yet fail instead of hanging.
+				for(AsyncTask<?> task : run) task.fail(e);
+			}
+			run.clear();
+		}
+	}
+
+	/**
+	 * Takes the next statement and, if it can be batched, the directly following statements with the same SQL.<br>
+	 * In group commit mode it takes all statements that arrive until the group is full or the group commit delay has passed.
+	 * */
+	private void take(List<AsyncTask<?>> run) throws InterruptedException {
+		takeLock.lockInterruptibly();
+		try {
+			AsyncTask<?> first = queue.take();
+			run.add(first);
+			if(groupCommit) {
+				long deadline = System.nanoTime() + groupCommitDelay;
+				AsyncTask<?> next;
+				while(run.size() < groupCommitSize && (next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) != null) {
+					run.add(next);
+				}
+			}else if(coalesceSize > 1 && first.isBatchable()) {
+				String sql = first.getQuery().getQuery();
+				AsyncTask<?> next;
+				while(run.size() < coalesceSize && (next = queue.peek()) != null
+						&& next.isBatchable() && sql.equals(next.getQuery().getQuery())) {
+					run.add(queue.poll());
+				}
+			}
+		} finally {
+			takeLock.unlock();
+		}
+		for(AsyncTask<?> task : run) stats.executed(task.getEnqueuedAt());
+	}
+
+	/**
+	 * Returns a factory for virtual threads or null if the running JDK does not support them.
+	 * */
+	private static ThreadFactory virtualThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "simpledb-async-", 0L);
+			Method factory = builderClass.getMethod("factory");
+			return (ThreadFactory)factory.invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.simpledb.database;
+
+/**
+ * What happens to an asynchronous statement that is submitted while the async queue is full.
+ * */
+public enum AsyncOverflowPolicy {
+	/**
+	 * The submitting thread waits until there is room in the queue.
+	 * */
+	BLOCK,
+	/**
+	 * The statement is rejected with a {@link com.simpledb.exceptions.DatabaseManagerException}.
+	 * */
+	REJECT,
+	/**
+	 * The oldest queued statement is dropped to make room. Its future and exception handle are told that it was dropped.
+	 * */
+	DROP_OLDEST
+}
@@ -0,0 +1,130 @@
+package com.simpledb.database;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Depth and throughput counters of the async statement queue.
+ * */
+public class AsyncQueueStats {
+
+	private final Queue<?> queue;
+	private final int capacity;
+	private final LongAccumulator peakDepth = new LongAccumulator(Math::max, 0);
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder executed = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAdder coalescedBatches = new LongAdder();
+	private final LongAdder coalescedStatements = new LongAdder();
+	private final LongAdder groupCommits = new LongAdder();
+	private final LongAdder groupedStatements = new LongAdder();
+
+	AsyncQueueStats(Queue<?> queue, int capacity) {
+		this.queue = queue;
+		this.capacity = capacity;
+	}
+
+	void submitted() {
+		submitted.increment();
+		peakDepth.accumulate(queue.size());
+	}
+
+	void rejected() {
+		rejected.increment();
+	}
+
+	void dropped() {
+		dropped.increment();
+	}
+
+	void executed(long enqueuedAt) {
+		executed.increment();
+		waitNanos.add(System.nanoTime() - enqueuedAt);
+	}
+
+	void coalesced(int statements) {
+		coalescedBatches.increment();
+		coalescedStatements.add(statements);
+	}
+
+	void grouped(int statements) {
+		groupCommits.increment();
+		groupedStatements.add(statements);
+	}
+
+	/**
+	 * Returns the number of statements that are currently waiting in the queue.
+	 * */
+	public int getDepth() {
+		return queue.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the highest queue depth seen since the workers were started.
+	 * */
+	public long getPeakDepth() {
+		return peakDepth.get();
+	}
+
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	public long getExecuted() {
+		return executed.sum();
+	}
+
+	/**
+	 * Returns the average time a statement waited in the queue before a worker picked it up or 0 if none was executed yet.
+	 * */
+	public double getAverageWaitMillis() {
+		long n = getExecuted();
+		return n == 0 ? 0 : waitNanos.sum() / 1_000_000.0 / n;
+	}
+
+	/**
+	 * Returns the number of batches that were built from consecutive queued INSERT statements.
+	 * */
+	public long getCoalescedBatches() {
+		return coalescedBatches.sum();
+	}
+
+	public long getCoalescedStatements() {
+		return coalescedStatements.sum();
+	}
+
+	/**
+	 * Returns the number of transactions committed in group commit mode.
+	 * */
+	public long getGroupCommits() {
+		return groupCommits.sum();
+	}
+
+	public long getGroupedStatements() {
+		return groupedStatements.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "Depth:\t" + getDepth() + "/" + getCapacity() + "\nPeak:\t" + getPeakDepth() + "\nSubmitted:\t" + getSubmitted()
+			+ "\nRejected:\t" + getRejected() + "\nDropped:\t" + getDropped() + "\nExecuted:\t" + getExecuted()
+			+ "\nCoalesced:\t" + getCoalescedStatements() + " in " + getCoalescedBatches() + " batches"
+			+ "\nGrouped:\t" + getGroupedStatements() + " in " + getGroupCommits() + " commits";
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.simpledb.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+import com.simpledb.exceptions.QueryException;
+
+/**
+ * A statement waiting in the queue of the {@link AsyncExecutor}.<br>
+ * Queries hand their result set to a handler, updates complete with the update count and statements
+ * submitted through {@link DatabaseManager#asyncSqlStatement(QueryObject)} report to the callbacks of their query object.
+ * */
+abstract class AsyncTask<T> {
+
+	private final QueryObject query;
+	private final CompletableFuture<T> future = new CompletableFuture<>();
+	private final long enqueuedAt = System.nanoTime();
+
+	AsyncTask(QueryObject query) {
+		this.query = query;
+	}
+
+	QueryObject getQuery() {
+		return query;
+	}
+
+	CompletableFuture<T> getFuture() {
+		return future;
+	}
+
+	long getEnqueuedAt() {
+		return enqueuedAt;
+	}
+
+	/**
+	 * Executes the prepared and bound statement. Called while the connection is borrowed.
+	 * */
+	abstract T execute(PreparedStatement ps) throws SQLException;
+
+	/**
+	 * Returns true if the statement may be merged with the following queued statements with the same SQL into one JDBC batch.
+	 * Only a {@link Batchable} task can be batched.
+	 * */
+	boolean isBatchable() {
+		return false;
+	}
+
+	/**
+	 * Returns true if the statement may share a group commit transaction with other statements.<br>
+	 * Only writes are grouped: their results are handed out after the commit, while a query hands its rows
+	 * to the handler as soon as it ran and must not see rows that may still be rolled back.
+	 * */
+	boolean isGroupable() {
+		return false;
+	}
+
+	/**
+	 * Returns the number of rows the statement affected for the statement listeners, -1 if it is unknown.
+	 * */
+	long rows(T result) {
+		return -1;
+	}
+
+	/**
+	 * Called after the connection was released again.
+	 * */
+	void complete(T result) {
+		future.complete(result);
+	}
+
+	void fail(Throwable exception) {
+		future.completeExceptionally(exception);
+	}
+
+	/**
+	 * A statement that can run as part of a coalesced batch. Bind parameter INSERT statements are batched.
+	 * */
+	abstract static class Batchable<T> extends AsyncTask<T> {
+
+		Batchable(QueryObject query) {
+			super(query);
+		}
+
+		@Override
+		boolean isBatchable() {
+			return isBindInsert(getQuery());
+		}
+
+		/**
+		 * Returns the result of a statement that ran as part of a coalesced batch.
+		 * */
+		abstract T batchResult(int updateCount);
+
+	}
+
+	static <T> AsyncTask<T> query(QueryObject query, DatabaseManager.ResultSetHandler<T> handler) {
+		return new AsyncTask<T>(query) {
+			@Override
+			T execute(PreparedStatement ps) throws SQLException {
+				try(ResultSet rs = ps.executeQuery()) {
+					return handler.handle(rs);
+				}
+			}
+		};
+	}
+
+	static Batchable<Integer> update(QueryObject query) {
+		return new Batchable<Integer>(query) {
+			@Override
+			Integer execute(PreparedStatement ps) throws SQLException {
+				if(ps.execute()) {
+					ps.getResultSet().close();
+					return -1;
+				}
+				return ps.getUpdateCount();
+			}
+
+			@Override
+			boolean isGroupable() {
+				return true;
+			}
+
+			@Override
+			Integer batchResult(int updateCount) {
+				return updateCount;
+			}
+
+			@Override
+			long rows(Integer result) {
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * A statement that can be a query or an update. The callback of the query object gets the result set of a query
+	 * and null for an update, failures go to the exception handle of the query object.
+	 * */
+	static Batchable<Void> statement(QueryObject query) {
+		return new Batchable<Void>(query) {
+			private boolean update = false;
+
+			@Override
+			Void execute(PreparedStatement ps) throws SQLException {
+				if(!ps.execute()) {
+					update = true;
+					return null;
+				}
+				try(ResultSet rs = ps.getResultSet()) {
+					if(query.hasCallback()) query.getCallback().callback(rs);
+				}
+				return null;
+			}
+
+			@Override
+			boolean isGroupable() {
+				try {
+					return SqlTables.writtenTable(query.getQuery()) != null;
+				} catch (RuntimeException e) {
+					//Fails again and is reported to the task once the statement runs on its own.
+					return false;
+				}
+			}
+
+			@Override
+			Void batchResult(int updateCount) {
+				update = true;
+				return null;
+			}
+
+			/**
+			 * The callback of an update only runs once the statement is committed.
+			 * */
+			@Override
+			void complete(Void result) {
+				if(update && query.hasCallback()) {
+					try {
+						query.getCallback().callback(null);
+					} catch (RuntimeException e) {
+						fail(e);
+						return;
+					}
+				}
+				super.complete(result);
+			}
+
+			/**
+			 * Every failure is reported to the exception handle once, failures that are no {@link QueryException} are wrapped in one.
+			 * */
+			@Override
+			void fail(Throwable exception) {
+				if(getFuture().isDone()) return;
+				super.fail(exception);
+				QueryException reported;
+				if(exception instanceof QueryException) {
+					reported = (QueryException)exception;
+				}else {
+					reported = new QueryException(query, new SQLException("Statement failed: " + exception, exception));
+				}
+				query.getExceptionHandle().handle(reported);
+			}
+		};
+	}
+
+	/**
+	 * Only INSERT statements in bind parameter mode are coalesced, their SQL text already fixes the table and the column set.
+	 * */
+	private static boolean isBindInsert(QueryObject query) {
+		if(!query.usesBindParameters()) return false;
+		String sql;
+		try {
+			sql = query.getQuery();
+		} catch (RuntimeException e) {
+			//Fails again and is reported to the task once the statement runs.
+			return false;
+		}
+		int start = 0;
+		while(start < sql.length() && Character.isWhitespace(sql.charAt(start))) ++start;
+		return sql.regionMatches(true, start, "INSERT", 0, 6);
+	}
+
+}
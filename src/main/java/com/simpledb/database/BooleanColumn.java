@@ -0,0 +1,56 @@
+package com.simpledb.database;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of boolean values read from a single column without boxing.
+ * */
+public class BooleanColumn {
+
+	private boolean[] values;
+	private int size = 0;
+	private int trueCount = 0;
+
+	BooleanColumn() {
+		this.values = new boolean[16];
+	}
+
+	void add(boolean value) {
+		if(size == values.length) values = Arrays.copyOf(values, values.length << 1);
+		values[size++] = value;
+		if(value) ++trueCount;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean get(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		return values[index];
+	}
+
+	/**
+	 * Returns the number of true values in the column.
+	 * */
+	public int countTrue() {
+		return trueCount;
+	}
+
+	/**
+	 * Returns a copy of the values trimmed to the size of the column.
+	 * */
+	public boolean[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.simpledb.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counters of a cache for query results.
+ * */
+public class CacheStats {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void eviction() {
+		evictions.increment();
+	}
+
+	void invalidation() {
+		invalidations.increment();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of entries that were dropped because the cache was full.
+	 * */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the number of times entries were dropped because a table they were read from was written.
+	 * */
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	/**
+	 * Returns the share of lookups that were served from the cache or 0 if nothing was looked up yet.
+	 * */
+	public double getHitRate() {
+		long h = getHits();
+		long total = h + getMisses();
+		return total == 0 ? 0 : (double)h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "Hits:\t" + getHits() + "\nMisses:\t" + getMisses() + "\nEvictions:\t" + getEvictions() + "\nInvalidations:\t" + getInvalidations();
+	}
+
+}
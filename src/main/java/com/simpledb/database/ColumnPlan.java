@@ -0,0 +1,96 @@
+package com.simpledb.database;
+
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.simpledb.exceptions.DatabaseTableException;
+
+/**
+ * The result set columns the fields of an object are read from.<br>
+ * The plan is built once per result set from its {@link ResultSetMetaData}, so the rows are read by index
+ * instead of letting the driver look up every cell by its label. Labels are matched case insensitively like
+ * {@link ResultSet#findColumn(String)} does, the first column with a label wins.
+ * */
+class ColumnPlan {
+
+	private static final Set<Integer> BINARY_TYPES = Set.of(Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB,
+			Types.ARRAY, Types.STRUCT, Types.REF, Types.JAVA_OBJECT);
+
+	private final int[] indexes;
+
+	private ColumnPlan(int[] indexes) {
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Resolves the index of every field column, method columns are not read back and get the index 0.<br>
+	 * The JDBC type of a column is only checked against its field, the values are read with the getters of the field type.
+	 *
+	 * @exception DatabaseTableException Is thrown if a column is missing in the result or has a type its primitive field can not hold.
+	 * */
+	static ColumnPlan of(ResultSet rs, List<EntityMapper.Column> columns, Class<?> owner) throws SQLException, DatabaseTableException {
+		ResultSetMetaData meta = rs.getMetaData();
+		Map<String, Integer> labels = labels(meta);
+		int[] indexes = new int[columns.size()];
+		for(int i = 0; i < indexes.length; ++i) {
+			EntityMapper.Column c = columns.get(i);
+			if(!c.isField()) continue;
+			Integer index = labels.get(c.getColumnName().toLowerCase(Locale.ROOT));
+			if(index == null)
+				throw new DatabaseTableException("Column " + c.getColumnName() + " of " + owner.getSimpleName() + " is not in the result, it has the columns: " + labels.keySet());
+			indexes[i] = index;
+			int type = meta.getColumnType(index);
+			if(c.getType().isPrimitive() && BINARY_TYPES.contains(type))
+				throw new DatabaseTableException("Column " + c.getColumnName() + " of type " + typeName(type) + " can not be read into the " + c.getType().getSimpleName() + " field of " + owner.getSimpleName());
+		}
+		return new ColumnPlan(indexes);
+	}
+
+	/**
+	 * Resolves the indexes of the given labels.
+	 *
+	 * @return The indexes in the order of the labels, 0 for labels that are not in the result.
+	 * */
+	static int[] indexes(ResultSet rs, String[] columnNames) throws SQLException {
+		Map<String, Integer> labels = labels(rs.getMetaData());
+		int[] indexes = new int[columnNames.length];
+		for(int i = 0; i < indexes.length; ++i) {
+			Integer index = labels.get(columnNames[i].toLowerCase(Locale.ROOT));
+			indexes[i] = index != null ? index : 0;
+		}
+		return indexes;
+	}
+
+	private static Map<String, Integer> labels(ResultSetMetaData meta) throws SQLException {
+		int count = meta.getColumnCount();
+		Map<String, Integer> labels = new HashMap<>(count * 2);
+		for(int i = 1; i <= count; ++i) {
+			labels.putIfAbsent(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+		}
+		return labels;
+	}
+
+	private static String typeName(int type) {
+		try {
+			return JDBCType.valueOf(type).getName();
+		} catch (IllegalArgumentException e) {
+			return String.valueOf(type);
+		}
+	}
+
+	/**
+	 * Returns the result set index of every column, 0 for columns that are not read.
+	 * */
+	int[] getIndexes() {
+		return indexes;
+	}
+
+}
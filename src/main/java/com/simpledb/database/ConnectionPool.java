@@ -0,0 +1,274 @@
+package com.simpledb.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed upper bound pool of JDBC connections sized from the {@link DatabaseInfo}.<br>
+ * Idle connections are handed out most recently used first, so the connections above the min pool size
+ * stay idle long enough to be evicted by the background evictor.
+ * */
+class ConnectionPool {
+
+	private final DatabaseInfo info;
+	private final int minSize;
+	private final int maxSize;
+	private final boolean readOnly;
+	private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+	private final ScheduledExecutorService evictor;
+	private final StatementCacheStats statementCacheStats;
+	private int totalConnections = 0;
+	private boolean closed = false;
+
+	ConnectionPool(DatabaseInfo info) throws SQLException {
+		this(info, info.getMinPoolSize(), info.getMaxPoolSize(), false, new StatementCacheStats());
+	}
+
+	/**
+	 * Creates a pool with its own size limits.<br>
+	 * The connections of a read only pool reject writes, on SQLite with <code>PRAGMA query_only</code>.
+	 * */
+	ConnectionPool(DatabaseInfo info, int minSize, int maxSize, boolean readOnly, StatementCacheStats statementCacheStats) throws SQLException {
+		this.info = info;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.readOnly = readOnly;
+		this.statementCacheStats = statementCacheStats;
+		try {
+			for(int i = 0; i < Math.min(minSize, maxSize); ++i) {
+				idle.addLast(newPooledConnection());
+				++totalConnections;
+			}
+		} catch (SQLException e) {
+			for(PooledConnection pc : idle) pc.close();
+			throw e;
+		}
+
+		this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "simpledb-pool-evictor");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1000, info.getIdleTimeout() / 2);
+		this.evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection from the pool.<br>
+	 * If no idle connection is available and the pool is at its max size the caller waits up to the borrow timeout.<br>
+	 * Connections that were idle for longer than the validation interval are validated before they are handed out.
+	 *
+	 * @exception SQLTransientConnectionException Is thrown when no connection became available in time.
+	 * */
+	PooledConnection borrow() throws SQLException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(info.getBorrowTimeout());
+		while(true) {
+			PooledConnection pc = null;
+			lock.lock();
+			try {
+				while(pc == null) {
+					if(closed) throw new SQLNonTransientConnectionException("Connection pool is closed!");
+					pc = idle.pollFirst();
+					if(pc != null) {
+						pc.setBorrowed(true);
+						break;
+					}
+					if(totalConnections < maxSize) {
+						++totalConnections;
+						break;
+					}
+					long remaining = deadline - System.nanoTime();
+					if(remaining <= 0)
+						throw new SQLTransientConnectionException("Timed out after " + info.getBorrowTimeout() + "ms waiting for a database connection!");
+					try {
+						available.awaitNanos(remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new SQLTransientConnectionException("Interrupted while waiting for a database connection!", e);
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if(pc == null) {
+				try {
+					pc = newPooledConnection();
+					pc.setBorrowed(true);
+					return pc;
+				} catch (SQLException e) {
+					discarded();
+					throw e;
+				}
+			}
+			if(System.currentTimeMillis() - pc.getLastUsed() <= info.getValidationInterval() || validate(pc)) {
+				return pc;
+			}
+			pc.close();
+			discarded();
+		}
+	}
+
+	/**
+	 * Returns a borrowed connection to the pool.<br>
+	 * Closed connections are dropped from the pool instead. Releasing a connection that is not borrowed does nothing,
+	 * so a connection released twice is never handed out to two callers.
+	 * */
+	void release(PooledConnection pc) {
+		if(pc == null) return;
+		boolean broken = pc.isClosed();
+		lock.lock();
+		try {
+			if(!pc.isBorrowed()) return;
+			pc.setBorrowed(false);
+			if(!broken && !closed) {
+				pc.touch();
+				idle.addFirst(pc);
+				available.signal();
+				return;
+			}
+			--totalConnections;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+		pc.close();
+	}
+
+	/**
+	 * Returns the number of connections waiting in the pool.
+	 * */
+	int getIdleCount() {
+		lock.lock();
+		try {
+			return idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	boolean validate(PooledConnection pc) {
+		try {
+			return pc.getConnection().isValid(info.getValidationTimeout());
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	void close() {
+		List<PooledConnection> toClose;
+		lock.lock();
+		try {
+			closed = true;
+			toClose = new ArrayList<>(idle);
+			totalConnections -= idle.size();
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		evictor.shutdownNow();
+		for(PooledConnection pc : toClose) pc.close();
+	}
+
+	/**
+	 * Closes the connections that were idle for longer than the idle timeout, down to the min pool size.
+	 * */
+	void evictIdle() {
+		List<PooledConnection> toClose = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		lock.lock();
+		try {
+			Iterator<PooledConnection> it = idle.descendingIterator();
+			while(it.hasNext() && totalConnections > minSize) {
+				PooledConnection pc = it.next();
+				if(now - pc.getLastUsed() < info.getIdleTimeout()) break;
+				it.remove();
+				--totalConnections;
+				toClose.add(pc);
+			}
+		} finally {
+			lock.unlock();
+		}
+		for(PooledConnection pc : toClose) pc.close();
+	}
+
+	private void discarded() {
+		lock.lock();
+		try {
+			--totalConnections;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	StatementCacheStats getStatementCacheStats() {
+		return statementCacheStats;
+	}
+
+	private PooledConnection newPooledConnection() throws SQLException {
+		return new PooledConnection(this, openConnection(), new StatementCache(info.getStatementCacheSize(), statementCacheStats));
+	}
+
+	private Connection openConnection() throws SQLException {
+		Properties properties = new Properties();
+		if(info.getUser() != null && info.getPass() != null) {
+			properties.setProperty("user", info.getUser());
+			properties.setProperty("password", info.getPass());
+		}
+		if(info.getType() == DatabaseType.MYSQL && info.isRewriteBatchedStatements()) {
+			properties.setProperty("rewriteBatchedStatements", "true");
+		}
+		if(info.getType() == DatabaseType.MYSQL && info.isServerPreparedStatements()) {
+			properties.setProperty("useServerPrepStmts", "true");
+			properties.setProperty("cachePrepStmts", "true");
+			properties.setProperty("prepStmtCacheSize", Integer.toString(info.getStatementCacheSize()));
+			properties.setProperty("prepStmtCacheSqlLimit", "2048");
+		}
+		Connection connection = DriverManager.getConnection(info.getUrl(), properties);
+		try {
+			if(info.getType() == DatabaseType.SQLITE && info.isSqlitePerformanceProfile()) {
+				applySqliteProfile(connection);
+			}else if(readOnly) {
+				connection.setReadOnly(true);
+			}
+		} catch (SQLException e) {
+			connection.close();
+			throw e;
+		}
+		return connection;
+	}
+
+	/**
+	 * Switches the database to WAL and tunes the connection, see {@link DatabaseInfo#setSqlitePerformanceProfile(boolean)}.<br>
+	 * The journal mode is stored in the database file, so only the writer sets it.
+	 * */
+	private void applySqliteProfile(Connection connection) throws SQLException {
+		try(Statement statement = connection.createStatement()) {
+			if(!readOnly) statement.execute("PRAGMA journal_mode = WAL");
+			statement.execute("PRAGMA synchronous = NORMAL");
+			statement.execute("PRAGMA mmap_size = " + info.getSqliteMmapSize());
+			statement.execute("PRAGMA cache_size = -" + info.getSqliteCacheSize());
+			statement.execute("PRAGMA temp_store = MEMORY");
+			if(readOnly) statement.execute("PRAGMA query_only = true");
+		}
+	}
+
+}
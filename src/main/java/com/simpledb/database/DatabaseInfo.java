@@ -11,6 +11,30 @@ public class DatabaseInfo{
 	private final String directory;
 	private final DatabaseType type;
 	
+	private int minPoolSize = 1;
+	private int maxPoolSize;
+	private long idleTimeout = 60000;
+	private long borrowTimeout = 30000;
+	private long validationInterval = 500;
+	private int validationTimeout = 5;
+	private int statementCacheSize = 64;
+	private int batchSize = 1000;
+	private boolean rewriteBatchedStatements = false;
+	private boolean serverPreparedStatements = true;
+	private int streamFetchSize = 1000;
+	private int asyncWorkers = 1;
+	private boolean asyncVirtualThreads = false;
+	private int asyncQueueCapacity = 10000;
+	private AsyncOverflowPolicy asyncOverflowPolicy = AsyncOverflowPolicy.BLOCK;
+	private int asyncCoalesceSize = 100;
+	private boolean asyncGroupCommit = false;
+	private int asyncGroupCommitSize = 100;
+	private long asyncGroupCommitDelay = 5;
+	private boolean sqlitePerformanceProfile = false;
+	private int sqliteReadPoolSize = 4;
+	private long sqliteMmapSize = 256L * 1024 * 1024;
+	private int sqliteCacheSize = 64 * 1024;
+	
 	public DatabaseInfo(String url, String name, String pass){
 		this.url = "jdbc:mysql://" + url;
 		this.user = name;
@@ -18,6 +42,7 @@ public class DatabaseInfo{
 		this.fileName = "";
 		this.directory = "";
 		this.type = DatabaseType.MYSQL;
+		this.maxPoolSize = 10;
 	}
 	
 	
@@ -28,6 +53,7 @@ public class DatabaseInfo{
 		this.fileName = fileName;
 		this.directory = directory;
 		this.type = DatabaseType.SQLITE;
+		this.maxPoolSize = 1;
 	}
 	
 	public String getUrl() {
@@ -59,4 +85,287 @@ public class DatabaseInfo{
 	public DatabaseType getType() {
 		return type;
 	}
+	
+	public int getMinPoolSize() {
+		return minPoolSize;
+	}
+	
+	/**
+	 * Sets the number of connections the pool keeps open even when they are idle.
+	 * */
+	public void setMinPoolSize(int minPoolSize) {
+		if(minPoolSize < 0) throw new IllegalArgumentException("Min pool size can not be negative!");
+		this.minPoolSize = minPoolSize;
+	}
+	
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+	
+	/**
+	 * Sets the maximum number of connections the pool will open.<br>
+	 * Defaults to 10 for MySQL and 1 for SQLite.
+	 * */
+	public void setMaxPoolSize(int maxPoolSize) {
+		if(maxPoolSize < 1) throw new IllegalArgumentException("Max pool size has to be at least 1!");
+		this.maxPoolSize = maxPoolSize;
+	}
+	
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+	
+	/**
+	 * Sets the time in milliseconds after which an idle connection above the min pool size is closed.
+	 * */
+	public void setIdleTimeout(long idleTimeout) {
+		if(idleTimeout <= 0) throw new IllegalArgumentException("Idle timeout has to be positive!");
+		this.idleTimeout = idleTimeout;
+	}
+	
+	public long getBorrowTimeout() {
+		return borrowTimeout;
+	}
+	
+	/**
+	 * Sets the time in milliseconds a caller waits for a free connection before the borrow fails.
+	 * */
+	public void setBorrowTimeout(long borrowTimeout) {
+		if(borrowTimeout < 0) throw new IllegalArgumentException("Borrow timeout can not be negative!");
+		this.borrowTimeout = borrowTimeout;
+	}
+	
+	public long getValidationInterval() {
+		return validationInterval;
+	}
+	
+	/**
+	 * Sets the time in milliseconds a connection has to be idle before it is validated again on borrow.<br>
+	 * A value of 0 validates the connection on every borrow.
+	 * */
+	public void setValidationInterval(long validationInterval) {
+		if(validationInterval < 0) throw new IllegalArgumentException("Validation interval can not be negative!");
+		this.validationInterval = validationInterval;
+	}
+	
+	public int getValidationTimeout() {
+		return validationTimeout;
+	}
+	
+	/**
+	 * Sets the time in seconds the driver gets to validate a connection.
+	 * */
+	public void setValidationTimeout(int validationTimeout) {
+		if(validationTimeout < 0) throw new IllegalArgumentException("Validation timeout can not be negative!");
+		this.validationTimeout = validationTimeout;
+	}
+	
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+	
+	/**
+	 * Sets the number of prepared statements each connection keeps cached.<br>
+	 * A value of 0 disables the statement cache.
+	 * */
+	public void setStatementCacheSize(int statementCacheSize) {
+		if(statementCacheSize < 0) throw new IllegalArgumentException("Statement cache size can not be negative!");
+		this.statementCacheSize = statementCacheSize;
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+	
+	/**
+	 * Sets the number of statements that are sent to the database in one batch and committed together.
+	 * */
+	public void setBatchSize(int batchSize) {
+		if(batchSize < 1) throw new IllegalArgumentException("Batch size has to be at least 1!");
+		this.batchSize = batchSize;
+	}
+	
+	public boolean isRewriteBatchedStatements() {
+		return rewriteBatchedStatements;
+	}
+	
+	/**
+	 * Lets the MySQL driver rewrite batched INSERT statements into multi row <code>INSERT ... VALUES (...),(...)</code> statements.<br>
+	 * Has no effect on SQLite.
+	 * */
+	public void setRewriteBatchedStatements(boolean rewriteBatchedStatements) {
+		this.rewriteBatchedStatements = rewriteBatchedStatements;
+	}
+	
+	public boolean isServerPreparedStatements() {
+		return serverPreparedStatements;
+	}
+	
+	/**
+	 * Lets the MySQL driver prepare statements on the server and keep them in its own statement cache of {@link #getStatementCacheSize()} entries
+	 * (<code>useServerPrepStmts</code> and <code>cachePrepStmts</code>), so a statement is parsed once per connection instead of on every execution.
+	 * Enabled by default, has no effect on SQLite.
+	 * */
+	public void setServerPreparedStatements(boolean serverPreparedStatements) {
+		this.serverPreparedStatements = serverPreparedStatements;
+	}
+	
+	public int getStreamFetchSize() {
+		return streamFetchSize;
+	}
+	
+	/**
+	 * Sets the number of rows the driver fetches at once for streamed results.<br>
+	 * MySQL ignores this value and always streams row by row, see {@link DatabaseManager#getStreamingResult(QueryObject)}.
+	 * */
+	public void setStreamFetchSize(int streamFetchSize) {
+		if(streamFetchSize < 0) throw new IllegalArgumentException("Stream fetch size can not be negative!");
+		this.streamFetchSize = streamFetchSize;
+	}
+	
+	public int getAsyncWorkers() {
+		return asyncWorkers;
+	}
+	
+	/**
+	 * Sets the number of worker threads that execute asynchronous statements.<br>
+	 * With a single worker the statements run in the order they were submitted.
+	 * Takes effect the next time the workers are started by {@link DatabaseManager#createDatabaseConnection(DatabaseInfo)}.
+	 * */
+	public void setAsyncWorkers(int asyncWorkers) {
+		if(asyncWorkers < 1) throw new IllegalArgumentException("At least one async worker is needed!");
+		this.asyncWorkers = asyncWorkers;
+	}
+	
+	public boolean isAsyncVirtualThreads() {
+		return asyncVirtualThreads;
+	}
+	
+	/**
+	 * Runs the async workers on virtual threads.<br>
+	 * Needs JDK 21 or newer, older runtimes fall back to platform threads.
+	 * */
+	public void setAsyncVirtualThreads(boolean asyncVirtualThreads) {
+		this.asyncVirtualThreads = asyncVirtualThreads;
+	}
+	
+	public int getAsyncQueueCapacity() {
+		return asyncQueueCapacity;
+	}
+	
+	/**
+	 * Sets the number of statements that can wait for an async worker before the overflow policy applies.
+	 * */
+	public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+		if(asyncQueueCapacity < 1) throw new IllegalArgumentException("Async queue capacity has to be at least 1!");
+		this.asyncQueueCapacity = asyncQueueCapacity;
+	}
+	
+	public AsyncOverflowPolicy getAsyncOverflowPolicy() {
+		return asyncOverflowPolicy;
+	}
+	
+	public void setAsyncOverflowPolicy(AsyncOverflowPolicy asyncOverflowPolicy) {
+		if(asyncOverflowPolicy == null) throw new IllegalArgumentException("Overflow policy can not be null!");
+		this.asyncOverflowPolicy = asyncOverflowPolicy;
+	}
+	
+	public int getAsyncCoalesceSize() {
+		return asyncCoalesceSize;
+	}
+	
+	/**
+	 * Sets how many consecutive queued INSERT statements with the same SQL an async worker merges into one JDBC batch.<br>
+	 * Only statements in bind parameter mode are merged, 1 turns coalescing off. The value is capped at the batch size.
+	 * */
+	public void setAsyncCoalesceSize(int asyncCoalesceSize) {
+		if(asyncCoalesceSize < 1) throw new IllegalArgumentException("Coalesce size has to be at least 1!");
+		this.asyncCoalesceSize = asyncCoalesceSize;
+	}
+	
+	public boolean isAsyncGroupCommit() {
+		return asyncGroupCommit;
+	}
+	
+	/**
+	 * Runs the async statements in group commit mode.<br>
+	 * A worker collects up to {@link #getAsyncGroupCommitSize()} statements, waiting at most {@link #getAsyncGroupCommitDelay()} ms for more to arrive,
+	 * and executes them in one transaction. Every statement runs inside its own savepoint, so a failing statement is rolled back
+	 * on its own while the others are committed. Callbacks and futures are completed after the commit.
+	 * Queries are not part of the transaction, they run on their own in the order they were submitted.
+	 * In group commit mode statements are not coalesced into batches.
+	 * */
+	public void setAsyncGroupCommit(boolean asyncGroupCommit) {
+		this.asyncGroupCommit = asyncGroupCommit;
+	}
+	
+	public int getAsyncGroupCommitSize() {
+		return asyncGroupCommitSize;
+	}
+	
+	public void setAsyncGroupCommitSize(int asyncGroupCommitSize) {
+		if(asyncGroupCommitSize < 1) throw new IllegalArgumentException("Group commit size has to be at least 1!");
+		this.asyncGroupCommitSize = asyncGroupCommitSize;
+	}
+	
+	public long getAsyncGroupCommitDelay() {
+		return asyncGroupCommitDelay;
+	}
+	
+	/**
+	 * Sets how many milliseconds a worker waits for further statements before it commits a group.
+	 * */
+	public void setAsyncGroupCommitDelay(long asyncGroupCommitDelay) {
+		if(asyncGroupCommitDelay < 0) throw new IllegalArgumentException("Group commit delay can not be negative!");
+		this.asyncGroupCommitDelay = asyncGroupCommitDelay;
+	}
+	
+	public boolean isSqlitePerformanceProfile() {
+		return sqlitePerformanceProfile;
+	}
+	
+	/**
+	 * Opens the SQLite database in WAL mode with <code>synchronous=NORMAL</code>, memory mapped I/O, a larger page cache
+	 * and temporary tables in memory.<br>
+	 * All writes and transactions go through one writer connection, queries and read only transactions run on a pool of up to
+	 * {@link #getSqliteReadPoolSize()} read only connections that read the last committed state without waiting for the writer.
+	 * With <code>synchronous=NORMAL</code> a power loss can roll back the last commits, the database stays consistent.
+	 * Has no effect on MySQL.
+	 * */
+	public void setSqlitePerformanceProfile(boolean sqlitePerformanceProfile) {
+		this.sqlitePerformanceProfile = sqlitePerformanceProfile;
+	}
+	
+	public int getSqliteReadPoolSize() {
+		return sqliteReadPoolSize;
+	}
+	
+	public void setSqliteReadPoolSize(int sqliteReadPoolSize) {
+		if(sqliteReadPoolSize < 1) throw new IllegalArgumentException("Read pool size has to be at least 1!");
+		this.sqliteReadPoolSize = sqliteReadPoolSize;
+	}
+	
+	public long getSqliteMmapSize() {
+		return sqliteMmapSize;
+	}
+	
+	/**
+	 * Sets the number of bytes of the database file SQLite maps into memory, 0 turns memory mapped I/O off.
+	 * */
+	public void setSqliteMmapSize(long sqliteMmapSize) {
+		if(sqliteMmapSize < 0) throw new IllegalArgumentException("Mmap size can not be negative!");
+		this.sqliteMmapSize = sqliteMmapSize;
+	}
+	
+	public int getSqliteCacheSize() {
+		return sqliteCacheSize;
+	}
+	
+	/**
+	 * Sets the size of the page cache of every connection in KiB.
+	 * */
+	public void setSqliteCacheSize(int sqliteCacheSize) {
+		if(sqliteCacheSize < 1) throw new IllegalArgumentException("Cache size has to be at least 1 KiB!");
+		this.sqliteCacheSize = sqliteCacheSize;
+	}
 }
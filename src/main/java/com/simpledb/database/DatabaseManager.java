@@ -3,10 +3,21 @@ package com.simpledb.database;
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
 
 import com.simpledb.exceptions.DatabaseManagerException;
 import com.simpledb.exceptions.QueryException;
@@ -21,40 +32,32 @@ public class DatabaseManager {
 		public void handle(QueryException exception);
 	}
 
-	private LinkedBlockingQueue<QueryObject> SQLStatements = new LinkedBlockingQueue<>();
-	private Thread asyncWorker;
-	private boolean running = true;
-	
-	private Connection connection;
-	
-	public DatabaseManager() {
-		initWorker();
+	/**
+	 * Handles the result set of a query submitted with {@link DatabaseManager#submit(QueryObject, ResultSetHandler)}.<br>
+	 * The result set is closed once the handler returns.
+	 * */
+	public interface ResultSetHandler<T>{
+		public T handle(ResultSet rs) throws SQLException;
 	}
 	
-	private void initWorker() {
-		asyncWorker = new Thread(() -> {
-			while(running) {
-				QueryObject q = null;
-				try {
-					q = SQLStatements.take();
-				} catch (InterruptedException e1) {
-					if(running) e1.printStackTrace();
-					running = false;
-				}
-				if(!running) return;
-				if(q != null){
-					try {
-						ResultSet rs = connection.prepareStatement(q.getQuery()).executeQuery();
-						if(q.hasCallback()) q.getCallback().callback(rs);
-					} catch (SQLException e) {
-						q.getExceptionHandle().handle(new QueryException(q, e));							
-					}
-				}
-			}
-		});
-		asyncWorker.start();
+	/**
+	 * The work of a transaction, see {@link DatabaseManager#inTransaction(TransactionCallback)}.
+	 * */
+	public interface TransactionCallback<T, E extends Exception>{
+		public T run(Transaction transaction) throws E;
 	}
 	
+	private AsyncExecutor asyncExecutor;
+	private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+	private final Map<String, EntityCache> entityCaches = new ConcurrentHashMap<>();
+	private volatile ResultCache resultCache;
+	private final List<StatementListener> statementListeners = new CopyOnWriteArrayList<>();
+	
+	private ConnectionPool connectionPool;
+	private ConnectionPool readPool;
+	private DatabaseInfo databaseInfo;
+	private RowSetFactory rowSetFactory;
+	
 	/**
 	 * This function sets up the database access.
 	 * @throws DatabaseManagerException 
@@ -72,57 +75,538 @@ public class DatabaseManager {
 			}
 		}
 		
+		boolean splitPools = info.getType() == DatabaseType.SQLITE && info.isSqlitePerformanceProfile();
+		ConnectionPool pool;
+		ConnectionPool readPool = null;
+		PooledConnection pc;
 		try {
-			this.connection = getNewConnection(info);
+			if(splitPools) {
+				StatementCacheStats stats = new StatementCacheStats();
+				pool = new ConnectionPool(info, 1, 1, false, stats);
+				try {
+					readPool = new ConnectionPool(info, Math.min(info.getMinPoolSize(), info.getSqliteReadPoolSize()), info.getSqliteReadPoolSize(), true, stats);
+				} catch (SQLException e) {
+					pool.close();
+					throw e;
+				}
+			}else {
+				pool = new ConnectionPool(info);
+			}
+			pc = pool.borrow();
 		} catch (SQLException e) {
+			if(readPool != null) readPool.close();
 			throw new DatabaseManagerException("Could not connect to database: " + e.getMessage());
 		}
-		if(!testConnection(this.connection)) {
+		boolean valid = pool.validate(pc);
+		pool.release(pc);
+		if(!valid) {
+			pool.close();
+			if(readPool != null) readPool.close();
 			throw new DatabaseManagerException("Connection to database failed!");
-		} 
+		}
+		if(this.connectionPool != null) this.connectionPool.close();
+		if(this.readPool != null) this.readPool.close();
+		this.connectionPool = pool;
+		this.readPool = readPool;
+		this.databaseInfo = info;
+		if(this.asyncExecutor == null || !this.asyncExecutor.isRunning()) this.asyncExecutor = new AsyncExecutor(this, info);
 		return true;
 	}
 	
 	public void closeConnection() throws DatabaseManagerException {
-		this.running = false;
-		if(this.connection != null) {
+		if(this.asyncExecutor != null) {
+			this.asyncExecutor.shutdown();
+		}
+		if(this.connectionPool != null) {
+			this.connectionPool.close();
+		}
+		if(this.readPool != null) {
+			this.readPool.close();
+		}
+	}
+
+	/**
+	 * Queues the query for one of the async workers.<br>
+	 * The callback of the query gets the result set of a query and null for an update, errors are passed to its exception handle.
+	 * */
+	public void asyncSqlStatement(QueryObject query) throws DatabaseManagerException {
+		enqueue(AsyncTask.statement(query));
+	}
+	
+	/**
+	 * Queues the statement for one of the async workers.<br>
+	 * The future completes with the update count, or -1 if the statement was a query.
+	 * Errors complete the future with a {@link QueryException}.
+	 * */
+	public CompletableFuture<Integer> submit(QueryObject query) throws DatabaseManagerException {
+		return enqueue(AsyncTask.update(query));
+	}
+	
+	/**
+	 * Queues the query for one of the async workers.<br>
+	 * The future completes with the value returned by the handler, the connection is released before the future completes.
+	 * Errors complete the future with a {@link QueryException}.
+	 * */
+	public <T> CompletableFuture<T> submit(QueryObject query, ResultSetHandler<T> handler) throws DatabaseManagerException {
+		return enqueue(AsyncTask.query(query, handler));
+	}
+	
+	private <T> CompletableFuture<T> enqueue(AsyncTask<T> task) throws DatabaseManagerException {
+		if(this.asyncExecutor == null || !this.asyncExecutor.isRunning()) throw new DatabaseManagerException("Worker not running!");
+		dialect(task.getQuery());
+		this.asyncExecutor.submit(task);
+		return task.getFuture();
+	}
+	
+	/**
+	 * Returns the depth and throughput counters of the async queue or null if the async workers were never started.
+	 * */
+	public AsyncQueueStats getAsyncQueueStats() {
+		return this.asyncExecutor != null ? this.asyncExecutor.getStats() : null;
+	}
+	
+	/**
+	 * Executes a queued statement on the calling worker thread.
+	 * */
+	<T> void runAsync(AsyncTask<T> task) {
+		QueryObject query = task.getQuery();
+		String sql = null;
+		PooledConnection pc = null;
+		PreparedStatement ps = null;
+		StatementTimer timer = timer("async", query);
+		timer.queued(task.getEnqueuedAt());
+		T result;
+		try {
+			sql = query.getQuery();
+			pc = acquire(sql);
+			timer.connected();
+			ps = pc.prepareStatement(sql);
+			query.bindParameters(ps);
+			result = task.execute(ps);
+		} catch (SQLException e) {
+			release(pc, sql, ps);
+			QueryException exception = new QueryException(query, e);
+			timer.finish(sql, -1, exception);
+			task.fail(exception);
+			return;
+		} catch (RuntimeException e) {
+			release(pc, sql, ps);
+			timer.finish(sql, -1, e);
+			task.fail(e);
+			return;
+		}
+		release(pc, sql, ps);
+		timer.finish(sql, task.rows(result), null);
+		written(query);
+		task.complete(result);
+	}
+	
+	/**
+	 * Executes coalesced INSERT statements as one batch on the calling worker thread.<br>
+	 * If the batch fails it is rolled back and the statements are executed one by one, so only the failing statements report an error.
+	 * */
+	void runAsyncBatch(List<AsyncTask<?>> tasks) {
+		List<QueryObject> queries = new ArrayList<>(tasks.size());
+		long[] enqueuedAt = new long[tasks.size()];
+		for(int i = 0; i < tasks.size(); ++i) {
+			queries.add(tasks.get(i).getQuery());
+			enqueuedAt[i] = tasks.get(i).getEnqueuedAt();
+		}
+		int[] counts;
+		try {
+			counts = executeBatch(queries, enqueuedAt);
+		} catch (QueryException | RuntimeException e) {
+			for(AsyncTask<?> task : tasks) runAsync(task);
+			return;
+		}
+		//Only batchable tasks are coalesced, see AsyncTask#isBatchable().
+		for(int i = 0; i < tasks.size(); ++i) completeBatched((AsyncTask.Batchable<?>)tasks.get(i), counts[i]);
+	}
+	
+	/**
+	 * Executes the statements in one transaction on the calling worker thread.<br>
+	 * Only statements that write share the transaction, see {@link AsyncTask#isGroupable()}. The other statements run
+	 * on their own between them, so a handler never sees rows that are not committed yet.
+	 * */
+	void runAsyncGroup(List<AsyncTask<?>> tasks) {
+		int start = 0;
+		for(int i = 0; i <= tasks.size(); ++i) {
+			if(i < tasks.size() && tasks.get(i).isGroupable()) continue;
+			if(i - start == 1) {
+				runAsync(tasks.get(start));
+			}else if(i > start) {
+				commitGroup(tasks.subList(start, i));
+			}
+			if(i < tasks.size()) runAsync(tasks.get(i));
+			start = i + 1;
+		}
+	}
+	
+	/**
+	 * Every statement runs inside a savepoint, a failing statement is rolled back to its savepoint and fails on its own.
+	 * The results are handed out after the commit, if the commit fails all statements fail.<br>
+	 * If the savepoint can not be rolled back, for example because a MySQL deadlock already rolled back the whole transaction,
+	 * the transaction is rolled back and all other statements run again one by one.
+	 * */
+	private void commitGroup(List<AsyncTask<?>> tasks) {
+		Object[] results = new Object[tasks.size()];
+		Throwable[] errors = new Throwable[tasks.size()];
+		String[] sqls = new String[tasks.size()];
+		StatementTimer[] timers = new StatementTimer[tasks.size()];
+		for(int i = 0; i < tasks.size(); ++i) {
+			timers[i] = timer("async", tasks.get(i).getQuery());
+			timers[i].queued(tasks.get(i).getEnqueuedAt());
+		}
+		boolean rerun = false;
+		PooledConnection pc = null;
+		try {
+			pc = acquire();
+			for(StatementTimer timer : timers) timer.connected();
+			Connection connection = pc.getConnection();
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
 			try {
-				this.connection.close();
+				for(int i = 0; i < tasks.size() && !rerun; ++i) {
+					AsyncTask<?> task = tasks.get(i);
+					String sql = null;
+					PreparedStatement ps = null;
+					Savepoint savepoint = null;
+					try {
+						sql = sqls[i] = task.getQuery().getQuery();
+						savepoint = connection.setSavepoint();
+						ps = pc.prepareStatement(sql);
+						task.getQuery().bindParameters(ps);
+						results[i] = task.execute(ps);
+						connection.releaseSavepoint(savepoint);
+					} catch (SQLException e) {
+						errors[i] = new QueryException(task.getQuery(), e);
+						rerun = !rollback(pc, savepoint);
+					} catch (RuntimeException e) {
+						errors[i] = e;
+						//Nothing ran if the query could not be constructed.
+						rerun = sql != null && !rollback(pc, savepoint);
+					} finally {
+						pc.returnStatement(sql, ps);
+					}
+				}
+				if(rerun) {
+					rollback(pc);
+				}else {
+					connection.commit();
+				}
 			} catch (SQLException e) {
-				throw new DatabaseManagerException("Exception while closing the connection: " + e.getMessage());
+				rollback(pc);
+				throw e;
+			} finally {
+				try {
+					connection.setAutoCommit(autoCommit);
+				} catch (SQLException e) {
+					//A connection in an unknown state is dropped by the pool.
+					pc.close();
+				}
+			}
+		} catch (SQLException e) {
+			rerun = false;
+			for(int i = 0; i < tasks.size(); ++i) {
+				if(errors[i] == null) errors[i] = new QueryException(tasks.get(i).getQuery(), e);
+			}
+		} finally {
+			release(pc);
+		}
+		for(int i = 0; i < tasks.size(); ++i) {
+			if(rerun && errors[i] == null) {
+				runAsync(tasks.get(i));
+				continue;
 			}
+			timers[i].finish(sqls[i], errors[i] == null ? rowsOf(tasks.get(i), results[i]) : -1, errors[i]);
+			if(errors[i] == null) written(tasks.get(i).getQuery());
+			finish(tasks.get(i), results[i], errors[i]);
 		}
 	}
-
-	public void asyncSqlStatement(QueryObject query) throws DatabaseManagerException {
-		if(!this.running) throw new DatabaseManagerException("Worker not running!");
-		SQLStatements.add(query);
+	
+	@SuppressWarnings("unchecked")
+	private static <T> void finish(AsyncTask<T> task, Object result, Throwable error) {
+		if(error != null) {
+			task.fail(error);
+		}else {
+			task.complete((T)result);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> long rowsOf(AsyncTask<T> task, Object result) {
+		return task.rows((T)result);
+	}
+	
+	private static <T> void completeBatched(AsyncTask.Batchable<T> task, int updateCount) {
+		T result;
+		try {
+			result = task.batchResult(updateCount);
+		} catch (RuntimeException e) {
+			task.fail(e);
+			return;
+		}
+		task.complete(result);
+	}
+	
+	/**
+	 * Runs the callback in one transaction and commits it once the callback returns.<br>
+	 * If the callback throws, or marks the transaction with {@link Transaction#setRollbackOnly()}, the transaction is rolled back.
+	 * 
+	 * @return The value returned by the callback.
+	 * @exception DatabaseManagerException Is thrown if the transaction could not be started or committed.
+	 * */
+	public <T, E extends Exception> T inTransaction(TransactionCallback<T, E> work) throws E, DatabaseManagerException {
+		return inTransaction(Transaction.DEFAULT_ISOLATION, false, work);
+	}
+	
+	/**
+	 * Runs the callback in one transaction with the given isolation level and commits it once the callback returns.<br>
+	 * Every operation of this manager on the calling thread uses the connection of the transaction until the callback returns.
+	 * {@link QueryResult}s read inside the callback are closed when it returns, read them into objects before returning.
+	 * A transaction started inside the callback joins the running one, its isolation level and read only hint are ignored.
+	 * 
+	 * @param isolation One of the <code>Connection.TRANSACTION_*</code> levels or {@link Transaction#DEFAULT_ISOLATION}.
+	 * @param readOnly Hints the database that the transaction does not write. SQLite enforces it with <code>PRAGMA query_only</code>.
+	 * @return The value returned by the callback.
+	 * @exception DatabaseManagerException Is thrown if the transaction could not be started or committed.
+	 * */
+	public <T, E extends Exception> T inTransaction(int isolation, boolean readOnly, TransactionCallback<T, E> work) throws E, DatabaseManagerException {
+		Transaction running = this.transaction.get();
+		if(running != null) return work.run(running);
+		
+		//Read only connections already reject writes.
+		boolean reader = readOnly && this.readPool != null;
+		PooledConnection pc;
+		try {
+			pc = reader ? this.readPool.borrow() : acquire();
+		} catch (SQLException e) {
+			throw new DatabaseManagerException("Could not start transaction: " + e.getMessage(), e);
+		}
+		Connection connection = pc.getConnection();
+		int previousIsolation;
+		try {
+			previousIsolation = connection.getTransactionIsolation();
+			if(isolation != Transaction.DEFAULT_ISOLATION) connection.setTransactionIsolation(isolation);
+			if(readOnly && !reader) setReadOnly(connection, true);
+			connection.setAutoCommit(false);
+		} catch (SQLException e) {
+			pc.close();
+			release(pc);
+			throw new DatabaseManagerException("Could not start transaction: " + e.getMessage(), e);
+		}
+		
+		Transaction tx = new Transaction(this, pc);
+		pc.setPinned(true);
+		this.transaction.set(tx);
+		boolean finished = false;
+		try {
+			T result = work.run(tx);
+			finished = true;
+			tx.closeResults();
+			if(tx.isRollbackOnly()) {
+				rollback(pc);
+			}else {
+				try {
+					connection.commit();
+				} catch (SQLException e) {
+					rollback(pc);
+					throw new DatabaseManagerException("Could not commit transaction: " + e.getMessage(), e);
+				}
+				for(String table : tx.getWrittenTables()) tableChanged(table);
+			}
+			return result;
+		} finally {
+			if(!finished) {
+				tx.closeResults();
+				rollback(pc);
+			}
+			this.transaction.remove();
+			pc.setPinned(false);
+			try {
+				connection.setAutoCommit(true);
+				if(readOnly && !reader) setReadOnly(connection, false);
+				if(isolation != Transaction.DEFAULT_ISOLATION) connection.setTransactionIsolation(previousIsolation);
+			} catch (SQLException e) {
+				//A connection in an unknown state is dropped by the pool.
+				pc.close();
+			}
+			release(pc);
+		}
+	}
+	
+	private void setReadOnly(Connection connection, boolean readOnly) throws SQLException {
+		if(this.databaseInfo.getType() == DatabaseType.SQLITE) {
+			try(Statement statement = connection.createStatement()) {
+				statement.execute("PRAGMA query_only = " + readOnly);
+			}
+		}else {
+			connection.setReadOnly(readOnly);
+		}
 	}
 	
 	public boolean executeQuery(QueryObject query) throws QueryException {
+		String sql = dialect(query).getQuery();
+		PooledConnection pc = null;
+		PreparedStatement ps = null;
+		StatementTimer timer = timer("executeQuery", query);
 		try {
-			return connection.prepareStatement(query.getQuery()).execute();
+			pc = acquire(sql);
+			timer.connected();
+			ps = pc.prepareStatement(sql);
+			query.bindParameters(ps);
+			boolean hasResult = ps.execute();
+			long rows = -1;
+			if(hasResult) {
+				ps.getResultSet().close();
+			}else {
+				rows = ps.getUpdateCount();
+			}
+			timer.finish(sql, rows, null);
+			written(query);
+			return hasResult;
 		} catch (SQLException e) {
-			throw new QueryException(query, e);
+			QueryException exception = new QueryException(query, e);
+			timer.finish(sql, -1, exception);
+			throw exception;
+		} finally {
+			release(pc, sql, ps);
 		}
 	}
 
 	public int executeUpdate(QueryObject query) throws QueryException{
+		String sql = dialect(query).getQuery();
+		PooledConnection pc = null;
+		PreparedStatement ps = null;
+		StatementTimer timer = timer("executeUpdate", query);
 		try {
-			return connection.prepareStatement(query.getQuery()).executeUpdate();
+			pc = acquire();
+			timer.connected();
+			ps = pc.prepareStatement(sql);
+			query.bindParameters(ps);
+			int count = ps.executeUpdate();
+			timer.finish(sql, count, null);
+			written(query);
+			return count;
 		} catch (SQLException e) {
-			throw new QueryException(query, e);
+			QueryException exception = new QueryException(query, e);
+			timer.finish(sql, -1, exception);
+			throw exception;
+		} finally {
+			release(pc, sql, ps);
 		}
 	}
 	
-	private boolean testConnection(Connection con) {
-		if(con == null) return false;
+	/**
+	 * Executes all queries with JDBC batches.<br>
+	 * Consecutive queries with the same SQL text are sent together in batches of {@link DatabaseInfo#getBatchSize()} statements,
+	 * every batch runs in its own transaction. Queries only share a batch when they use bind parameters,
+	 * see {@link QueryObject#setBindParameters(boolean)}.<br>
+	 * Inside {@link #inTransaction(TransactionCallback)} nothing is committed, a failing batch is rolled back to a savepoint instead.
+	 * 
+	 * @return The update counts of all queries in the order they were given.
+	 * @exception QueryException Is thrown with the first query of the batch that failed. All earlier batches stay committed.
+	 * */
+	public int[] executeBatch(List<QueryObject> queries) throws QueryException {
+		return executeBatch(queries, null);
+	}
+	
+	/**
+	 * Executes the queries like {@link #executeBatch(List)}, every batch reports the queue wait of its oldest query to the listeners.
+	 * 
+	 * @param enqueuedAt The {@link System#nanoTime()} every query was queued at or null if they were not queued.
+	 * */
+	int[] executeBatch(List<QueryObject> queries, long[] enqueuedAt) throws QueryException {
+		int[] counts = new int[queries.size()];
+		if(queries.isEmpty()) return counts;
+		for(QueryObject query : queries) dialect(query);
+		PooledConnection pc;
+		StatementTimer timer = timer("executeBatch", queries.get(0));
+		if(enqueuedAt != null) timer.queued(oldest(enqueuedAt, 0, queries.size()));
 		try {
-			if(con.prepareStatement("SELECT 1;").execute()) return true;
+			pc = acquire();
 		} catch (SQLException e) {
-			return false;
+			QueryException exception = new QueryException(queries.get(0), e);
+			timer.finish(-1, exception);
+			throw exception;
+		}
+		timer.connected();
+		int batchSize = this.databaseInfo.getBatchSize();
+		try {
+			boolean autoCommit = pc.getConnection().getAutoCommit();
+			pc.getConnection().setAutoCommit(false);
+			try {
+				int start = 0;
+				while(start < queries.size()) {
+					String sql = queries.get(start).getQuery();
+					int end = start + 1;
+					while(end < queries.size() && end - start < batchSize && sql.equals(queries.get(end).getQuery())) ++end;
+					
+					if(start > 0) {
+						timer = timer("executeBatch", queries.get(start));
+						if(enqueuedAt != null) timer.queued(oldest(enqueuedAt, start, end));
+					}
+					PreparedStatement ps = null;
+					Savepoint savepoint = null;
+					try {
+						if(pc.isPinned()) savepoint = pc.getConnection().setSavepoint();
+						ps = pc.prepareStatement(sql);
+						for(int i = start; i < end; ++i) {
+							queries.get(i).bindParameters(ps);
+							ps.addBatch();
+						}
+						int[] batchCounts = ps.executeBatch();
+						if(savepoint != null) {
+							pc.getConnection().releaseSavepoint(savepoint);
+						}else {
+							pc.getConnection().commit();
+						}
+						System.arraycopy(batchCounts, 0, counts, start, Math.min(batchCounts.length, end - start));
+						timer.finish(sql, affectedRows(batchCounts), null);
+						written(queries.get(start));
+					} catch (SQLException e) {
+						if(pc.isPinned()) {
+							rollback(pc, savepoint);
+						}else {
+							rollback(pc);
+						}
+						QueryException exception = new QueryException(queries.get(start), e);
+						timer.finish(sql, -1, exception);
+						throw exception;
+					} finally {
+						pc.returnStatement(sql, ps);
+					}
+					start = end;
+				}
+			} finally {
+				pc.getConnection().setAutoCommit(autoCommit);
+			}
+		} catch (SQLException e) {
+			throw new QueryException(queries.get(0), e);
+		} finally {
+			release(pc);
+		}
+		return counts;
+	}
+	
+	private static long oldest(long[] enqueuedAt, int start, int end) {
+		long oldest = enqueuedAt[start];
+		for(int i = start + 1; i < end; ++i) {
+			if(enqueuedAt[i] - oldest < 0) oldest = enqueuedAt[i];
+		}
+		return oldest;
+	}
+	
+	/**
+	 * Sums the update counts of a batch, -1 if the driver reported none of them.
+	 * */
+	private static long affectedRows(int[] counts) {
+		long rows = 0;
+		for(int count : counts) {
+			if(count < 0) return -1;
+			rows += count;
 		}
-		return false;
+		return rows;
 	}
 	
 	public boolean hasTable(String TableName) {
@@ -133,8 +617,169 @@ public class DatabaseManager {
 		}
 	}
 	
-	public synchronized ResultSet getData(QueryObject query) throws SQLException {
-		return connection.prepareStatement(query.getQuery()).executeQuery();
+	/**
+	 * Executes the query and returns its result set.<br>
+	 * The rows are read into a detached {@link CachedRowSet} before the connection goes back to the pool,
+	 * so the result stays valid after the connection is reused and does not have to be closed.<br>
+	 * With the result cache enabled, see {@link #enableResultCache(long, long, boolean)}, the result may come from the cache.
+	 * Use {@link #getResult(QueryObject)} to stream large results instead.
+	 * */
+	public ResultSet getData(QueryObject query) throws SQLException {
+		dialect(query);
+		ResultCache cache = getResultCache(query);
+		StatementTimer timer = timer("getData", query);
+		Object key = null;
+		long generation = 0;
+		if(cache != null) {
+			key = ResultCache.key(query);
+			CachedRowSet cached = cache.get(key);
+			if(cached != null) {
+				timer.cached();
+				timer.finish(cached.size(), null);
+				return cached;
+			}
+			generation = cache.getGeneration();
+		}
+		String sql = null;
+		PooledConnection pc = null;
+		PreparedStatement ps = null;
+		try {
+			sql = query.getQuery();
+			pc = acquire(sql);
+			timer.connected();
+			ps = pc.prepareStatement(sql);
+			query.bindParameters(ps);
+			CachedRowSet rows;
+			try(ResultSet rs = ps.executeQuery()) {
+				if(cache != null) {
+					rows = cache.put(key, sql, rs, generation);
+				}else {
+					rows = rowSetFactory().createCachedRowSet();
+					rows.populate(rs);
+					rows.beforeFirst();
+				}
+			}
+			timer.finish(sql, rows.size(), null);
+			return rows;
+		} catch (SQLException | RuntimeException e) {
+			timer.finish(sql, -1, e);
+			throw e;
+		} finally {
+			release(pc, sql, ps);
+		}
+	}
+	
+	/**
+	 * Executes the query with a cached prepared statement and returns the result together with its connection.<br>
+	 * The connection stays borrowed until the returned {@link QueryResult} is closed.
+	 * */
+	public QueryResult getResult(QueryObject query) throws SQLException {
+		String sql = dialect(query).getQuery();
+		StatementTimer timer = timer("getResult", query);
+		PooledConnection pc = null;
+		PreparedStatement ps = null;
+		try {
+			pc = acquire(sql);
+			timer.connected();
+			ps = pc.prepareStatement(sql);
+			query.bindParameters(ps);
+			return opened(new QueryResult(query, sql, pc, ps, ps.executeQuery(), timer));
+		} catch (SQLException | RuntimeException e) {
+			release(pc, sql, ps);
+			timer.finish(sql, -1, e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Runs the query on a borrowed connection and hands its result set to the handler, bypassing the statement listeners
+	 * and the result cache.<br>
+	 * Used for diagnostics like the plans of the {@link SlowQueryLog}, which must not show up in the metrics they explain.
+	 * */
+	<T> T getRaw(QueryObject query, ResultSetHandler<T> handler) throws SQLException {
+		String sql = dialect(query).getQuery();
+		PooledConnection pc = acquire(sql);
+		try(PreparedStatement ps = pc.getConnection().prepareStatement(sql)) {
+			query.bindParameters(ps);
+			try(ResultSet rs = ps.executeQuery()) {
+				return handler.handle(rs);
+			}
+		} finally {
+			release(pc);
+		}
+	}
+	
+	/**
+	 * Executes the query for streaming and returns the result together with its connection.<br>
+	 * The statement is not cached and fetches {@link DatabaseInfo#getStreamFetchSize()} rows at a time,
+	 * MySQL streams the result row by row (fetch size <code>Integer.MIN_VALUE</code>) so it is never held in memory as a whole.
+	 * The connection stays borrowed until the returned {@link QueryResult} is closed.
+	 * */
+	public QueryResult getStreamingResult(QueryObject query) throws SQLException {
+		dialect(query);
+		StatementTimer timer = timer("getStreamingResult", query);
+		PooledConnection pc = null;
+		PreparedStatement ps = null;
+		try {
+			pc = acquire(query.getQuery());
+			timer.connected();
+			ps = pc.getConnection().prepareStatement(query.getQuery(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(this.databaseInfo.getType() == DatabaseType.MYSQL ? Integer.MIN_VALUE : this.databaseInfo.getStreamFetchSize());
+			query.bindParameters(ps);
+			return opened(new QueryResult(query, null, pc, ps, ps.executeQuery(), timer));
+		} catch (SQLException | RuntimeException e) {
+			try {
+				if(ps != null) ps.close();
+			} finally {
+				release(pc);
+				timer.finish(-1, e);
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the hit and miss counters of the prepared statement caches or null if no connection has been created.
+	 * */
+	public StatementCacheStats getStatementCacheStats() {
+		return this.connectionPool != null ? this.connectionPool.getStatementCacheStats() : null;
+	}
+	
+	/**
+	 * Tells the query which SQL dialect its constructor has to emit, see {@link QueryObject#constructUpsert(QueryObject)}.
+	 * */
+	private QueryObject dialect(QueryObject query) {
+		if(this.databaseInfo != null) query.setDatabaseType(this.databaseInfo.getType());
+		return query;
+	}
+	
+	DatabaseType getDatabaseType() {
+		return this.databaseInfo != null ? this.databaseInfo.getType() : null;
+	}
+	
+	/**
+	 * Registers a listener that is called after every statement executed by this manager, including async and batched statements.<br>
+	 * {@link StatementMetrics} is a listener that keeps latency histograms per statement shape.
+	 * Without listeners the statements are not measured at all.
+	 * */
+	public void addStatementListener(StatementListener listener) {
+		if(listener == null) throw new IllegalArgumentException("Listener can not be null!");
+		this.statementListeners.add(listener);
+	}
+	
+	public void removeStatementListener(StatementListener listener) {
+		this.statementListeners.remove(listener);
+	}
+	
+	private RowSetFactory rowSetFactory() throws SQLException {
+		RowSetFactory factory = this.rowSetFactory;
+		if(factory == null) this.rowSetFactory = factory = RowSetProvider.newFactory();
+		return factory;
+	}
+	
+	private StatementTimer timer(String operation, QueryObject query) {
+		if(this.statementListeners.isEmpty()) return StatementTimer.NONE;
+		return new StatementTimer(this.statementListeners, operation, query);
 	}
 	
 	public static DatabaseInfo getDatabaseInfo(String url, String name, String pass) {
@@ -145,8 +790,157 @@ public class DatabaseManager {
 		return new DatabaseInfo(directory, fileName);
 	}
 	
-	private Connection getNewConnection(DatabaseInfo dbInfo) throws SQLException {
-		return (dbInfo.getUser() != null && dbInfo.getPass() != null ? DriverManager.getConnection(dbInfo.getUrl(), dbInfo.getUser(), dbInfo.getPass()) : DriverManager.getConnection(dbInfo.getUrl()));
+	/**
+	 * Caches the objects read from the table with {@link DatabaseTable#getDatabaseObject(Class, Object, String, int...)}.<br>
+	 * At most <code>maxSize</code> objects are kept, the least recently used are dropped first and every entry expires after <code>ttlMillis</code>.
+	 * The cache is cleared whenever an INSERT, UPDATE or DELETE on the table is executed through this manager,
+	 * writes inside a transaction clear it after the commit. Reads inside a transaction bypass the cache.
+	 * */
+	public void enableEntityCache(String tableName, int maxSize, long ttlMillis) {
+		if(maxSize < 1) throw new IllegalArgumentException("Cache size has to be at least 1!");
+		if(ttlMillis < 0) throw new IllegalArgumentException("Time to live can not be negative!");
+		this.entityCaches.put(SqlTables.normalize(tableName), new EntityCache(maxSize, ttlMillis));
+	}
+	
+	public void disableEntityCache(String tableName) {
+		this.entityCaches.remove(SqlTables.normalize(tableName));
+	}
+	
+	/**
+	 * Returns the hit and miss counters of the entity cache of the table or null if it has none.
+	 * */
+	public CacheStats getEntityCacheStats(String tableName) {
+		EntityCache cache = this.entityCaches.get(SqlTables.normalize(tableName));
+		return cache != null ? cache.getStats() : null;
+	}
+	
+	/**
+	 * Returns the entity cache of the table or null if it has none or a transaction is running on this thread.
+	 * */
+	EntityCache getEntityCache(String tableName) {
+		if(this.entityCaches.isEmpty() || this.transaction.get() != null) return null;
+		return this.entityCaches.get(SqlTables.normalize(tableName));
+	}
+	
+	/**
+	 * Caches the results of {@link #getData(QueryObject)} keyed by the SQL and the bound values.<br>
+	 * The results are read completely into detached row sets. Cached results are dropped when one of the tables after
+	 * FROM or JOIN in their SQL is written through this manager, writes inside a transaction drop them after the commit.
+	 * Queries inside a transaction bypass the cache. Tables behind views are not tracked, their results only expire.
+	 * 
+	 * @param maxBytes The estimated memory the cached rows may take, the least recently used results are dropped first.
+	 * @param cacheByDefault If queries are cached unless they opt out with {@link QueryObject#setCacheResult(boolean)}.
+	 * */
+	public void enableResultCache(long maxBytes, long ttlMillis, boolean cacheByDefault) throws DatabaseManagerException {
+		if(maxBytes < 1) throw new IllegalArgumentException("Cache size has to be at least 1 byte!");
+		if(ttlMillis < 0) throw new IllegalArgumentException("Time to live can not be negative!");
+		try {
+			this.resultCache = new ResultCache(maxBytes, ttlMillis, cacheByDefault);
+		} catch (SQLException e) {
+			throw new DatabaseManagerException("Could not create result cache: " + e.getMessage(), e);
+		}
+	}
+	
+	public void disableResultCache() {
+		this.resultCache = null;
+	}
+	
+	/**
+	 * Returns the hit and miss counters of the result cache or null if it is not enabled.
+	 * */
+	public CacheStats getResultCacheStats() {
+		ResultCache cache = this.resultCache;
+		return cache != null ? cache.getStats() : null;
+	}
+	
+	private ResultCache getResultCache(QueryObject query) {
+		ResultCache cache = this.resultCache;
+		if(cache == null || this.transaction.get() != null || !cache.isCached(query)) return null;
+		return cache;
+	}
+	
+	/**
+	 * Invalidates the caches of the table the query wrote to. Inside a transaction this happens after the commit.
+	 * */
+	private void written(QueryObject query) {
+		if(this.entityCaches.isEmpty() && this.resultCache == null) return;
+		String table = SqlTables.writtenTable(query.getQuery());
+		if(table == null) return;
+		Transaction running = this.transaction.get();
+		if(running != null) {
+			running.written(table);
+		}else {
+			tableChanged(table);
+		}
+	}
+	
+	private void tableChanged(String table) {
+		ResultCache results = this.resultCache;
+		if(table.equals(SqlTables.ALL_TABLES)) {
+			for(EntityCache cache : this.entityCaches.values()) cache.invalidate();
+			if(results != null) results.invalidateAll();
+			return;
+		}
+		EntityCache cache = this.entityCaches.get(table);
+		if(cache != null) cache.invalidate();
+		if(results != null) results.invalidate(table);
+	}
+	
+	/**
+	 * Returns the connection of the transaction running on this thread or borrows one from the pool.
+	 * */
+	private PooledConnection acquire() throws SQLException {
+		Transaction running = this.transaction.get();
+		if(running != null) return running.getPooledConnection();
+		if(this.connectionPool == null) throw new SQLException("No database connection has been created!");
+		return this.connectionPool.borrow();
+	}
+	
+	/**
+	 * Borrows a connection for the statement. With the SQLite performance profile read only statements
+	 * run on the read pool, everything else uses the writer, see {@link SqlTables#isReadOnly(String)}.
+	 * */
+	private PooledConnection acquire(String sql) throws SQLException {
+		ConnectionPool readPool = this.readPool;
+		if(readPool != null && this.transaction.get() == null && SqlTables.isReadOnly(sql)) return readPool.borrow();
+		return acquire();
+	}
+	
+	private QueryResult opened(QueryResult result) {
+		Transaction running = this.transaction.get();
+		if(running != null) running.opened(result);
+		return result;
+	}
+	
+	private void rollback(PooledConnection pc) {
+		try {
+			pc.getConnection().rollback();
+		} catch (SQLException e) {
+			//The connection is closed by the pool if it is broken.
+		}
+	}
+	
+	/**
+	 * Returns false if the savepoint was not set or could not be rolled back, the transaction is in an unknown state then.
+	 * */
+	private boolean rollback(PooledConnection pc, Savepoint savepoint) {
+		if(savepoint == null) return false;
+		try {
+			pc.getConnection().rollback(savepoint);
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+	
+	private void release(PooledConnection pc) {
+		if(pc != null) pc.release();
+	}
+	
+	private void release(PooledConnection pc, String sql, PreparedStatement ps) {
+		if(pc == null) return;
+		pc.returnStatement(sql, ps);
+		pc.release();
 	}
 	
 }
@@ -1,22 +1,23 @@
 package com.simpledb.database;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 
-import com.simpledb.annotations.DatabaseField;
 import com.simpledb.annotations.DatabaseObject;
 import com.simpledb.exceptions.DatabaseTableException;
+import com.simpledb.exceptions.QueryException;
 import com.simpledb.exceptions.QueryObjectException;
 
 public class DatabaseTable {
-	private static Set<Class<?>> templateTypes = Set.of(int.class, boolean.class, byte.class, short.class, long.class, String.class, Integer.class, Boolean.class, Short.class, Long.class, Byte.class);
+	static Set<Class<?>> templateTypes = Set.of(int.class, boolean.class, byte.class, short.class, long.class, String.class, Integer.class, Boolean.class, Short.class, Long.class, Byte.class);
 
 	private DatabaseManager databaseManager;
 	private String tableName;
@@ -26,6 +27,10 @@ public class DatabaseTable {
 		this.tableName = tableName;
 	}
 	
+	public String getTableName() {
+		return this.tableName;
+	}
+	
 	public<T> List<T> getColumn(Class<T> t, String queryName, int column) throws SQLException, DatabaseTableException{
 		QueryObject q = new QueryObject(queryName, this.tableName);
 		return getColumn(t, q, column);
@@ -34,14 +39,16 @@ public class DatabaseTable {
 	public<T> List<T> getColumn(Class<T> t, QueryObject query, int column) throws SQLException, DatabaseTableException{
 		List<T> resultList = new ArrayList<T>();
 		if(templateTypes.contains(t)) {
-			ResultSet resultData = this.databaseManager.getData(query);
-			while(resultData.next()) {
-				Object tocast = resultData.getObject(column);
-				try {
-					T casted = safeCast(tocast, t);
-					if(casted != null) resultList.add(casted);
-				} catch (Exception e) {
-					throw new DatabaseTableException("Could not cast " + tocast.getClass().getSimpleName() + " to " + t.getSimpleName());
+			try(QueryResult result = this.databaseManager.getResult(called(query))){
+				ResultSet resultData = result.getResultSet();
+				while(result.next()) {
+					Object tocast = resultData.getObject(column);
+					try {
+						T casted = safeCast(tocast, t);
+						if(casted != null) resultList.add(casted);
+					} catch (Exception e) {
+						throw new DatabaseTableException("Could not cast " + tocast.getClass().getSimpleName() + " to " + t.getSimpleName());
+					}
 				}
 			}
 		}else {
@@ -59,14 +66,17 @@ public class DatabaseTable {
 	public<T> List<T> getColumn(Class<T> t, QueryObject query, String column) throws SQLException, DatabaseTableException{
 		List<T> resultList = new ArrayList<T>();
 		if(templateTypes.contains(t)) {
-			ResultSet resultData = this.databaseManager.getData(query);
-			while(resultData.next()) {
-				Object tocast = resultData.getObject(column);
-				try {
-					T casted = safeCast(tocast, t);
-					if(casted != null) resultList.add(casted);
-				} catch (Exception e) {
-					throw new DatabaseTableException("Could not cast " + tocast.getClass().getSimpleName() + " to " + t.getSimpleName());
+			try(QueryResult result = this.databaseManager.getResult(called(query))){
+				ResultSet resultData = result.getResultSet();
+				int index = resultData.findColumn(column);
+				while(result.next()) {
+					Object tocast = resultData.getObject(index);
+					try {
+						T casted = safeCast(tocast, t);
+						if(casted != null) resultList.add(casted);
+					} catch (Exception e) {
+						throw new DatabaseTableException("Could not cast " + tocast.getClass().getSimpleName() + " to " + t.getSimpleName());
+					}
 				}
 			}
 		}else {
@@ -76,6 +86,93 @@ public class DatabaseTable {
 		return resultList;
 	}
 	
+	public IntColumn getIntColumn(String queryName, String column) throws SQLException{
+		return getIntColumn(new QueryObject(queryName, this.tableName), column);
+	}
+	
+	public IntColumn getIntColumn(QueryObject query, int column) throws SQLException{
+		return getIntColumn(query, null, column);
+	}
+	
+	/**
+	 * Reads a column with <code>ResultSet.getInt</code> into a primitive array without boxing the values.<br>
+	 * Other numeric column types are converted by the driver, NULL values are skipped like in {@link #getColumn(Class, QueryObject, String)}.
+	 * */
+	public IntColumn getIntColumn(QueryObject query, String column) throws SQLException{
+		return getIntColumn(query, column, 0);
+	}
+	
+	private IntColumn getIntColumn(QueryObject query, String columnLabel, int column) throws SQLException{
+		IntColumn resultColumn = new IntColumn();
+		try(QueryResult result = this.databaseManager.getResult(called(query))){
+			ResultSet resultData = result.getResultSet();
+			int index = columnLabel != null ? resultData.findColumn(columnLabel) : column;
+			while(result.next()) {
+				int value = resultData.getInt(index);
+				if(!resultData.wasNull()) resultColumn.add(value);
+			}
+		}
+		return resultColumn;
+	}
+	
+	public LongColumn getLongColumn(String queryName, String column) throws SQLException{
+		return getLongColumn(new QueryObject(queryName, this.tableName), column);
+	}
+	
+	public LongColumn getLongColumn(QueryObject query, int column) throws SQLException{
+		return getLongColumn(query, null, column);
+	}
+	
+	/**
+	 * Reads a column with <code>ResultSet.getLong</code> into a primitive array without boxing the values.<br>
+	 * Other numeric column types are converted by the driver, NULL values are skipped like in {@link #getColumn(Class, QueryObject, String)}.
+	 * */
+	public LongColumn getLongColumn(QueryObject query, String column) throws SQLException{
+		return getLongColumn(query, column, 0);
+	}
+	
+	private LongColumn getLongColumn(QueryObject query, String columnLabel, int column) throws SQLException{
+		LongColumn resultColumn = new LongColumn();
+		try(QueryResult result = this.databaseManager.getResult(called(query))){
+			ResultSet resultData = result.getResultSet();
+			int index = columnLabel != null ? resultData.findColumn(columnLabel) : column;
+			while(result.next()) {
+				long value = resultData.getLong(index);
+				if(!resultData.wasNull()) resultColumn.add(value);
+			}
+		}
+		return resultColumn;
+	}
+	
+	public BooleanColumn getBooleanColumn(String queryName, String column) throws SQLException{
+		return getBooleanColumn(new QueryObject(queryName, this.tableName), column);
+	}
+	
+	public BooleanColumn getBooleanColumn(QueryObject query, int column) throws SQLException{
+		return getBooleanColumn(query, null, column);
+	}
+	
+	/**
+	 * Reads a column with <code>ResultSet.getBoolean</code> into a primitive array without boxing the values.<br>
+	 * Other numeric column types are converted by the driver, NULL values are skipped like in {@link #getColumn(Class, QueryObject, String)}.
+	 * */
+	public BooleanColumn getBooleanColumn(QueryObject query, String column) throws SQLException{
+		return getBooleanColumn(query, column, 0);
+	}
+	
+	private BooleanColumn getBooleanColumn(QueryObject query, String columnLabel, int column) throws SQLException{
+		BooleanColumn resultColumn = new BooleanColumn();
+		try(QueryResult result = this.databaseManager.getResult(called(query))){
+			ResultSet resultData = result.getResultSet();
+			int index = columnLabel != null ? resultData.findColumn(columnLabel) : column;
+			while(result.next()) {
+				boolean value = resultData.getBoolean(index);
+				if(!resultData.wasNull()) resultColumn.add(value);
+			}
+		}
+		return resultColumn;
+	}
+	
 	public<T,S> List<S> getColumnPacked(Class<T> columnType, Class<S> returnType, String queryName, String column, PackedObject packing) throws SQLException, DatabaseTableException{
 		QueryObject q = new QueryObject(queryName, this.tableName);
 		return getColumnPacked(columnType, returnType, q, column, packing);
@@ -84,15 +181,18 @@ public class DatabaseTable {
 	public<T,S> List<S> getColumnPacked(Class<T> columnType, Class<S> returnType, QueryObject query, String column, PackedObject packing) throws SQLException, DatabaseTableException{
 		List<S> resultList = new ArrayList<S>();
 		if(templateTypes.contains(columnType)) {
-			ResultSet resultData = this.databaseManager.getData(query);
-			while(resultData.next()) {
-				Object tocast = resultData.getObject(column);
-				try {
-					T casted = safeCast(tocast, columnType);
-					S outputObject = packing.pack(casted, returnType);
-					if(casted != null) resultList.add(outputObject);
-				} catch (Exception e) {
-					throw new DatabaseTableException("Could not cast " + tocast.getClass().getSimpleName() + " to " + columnType.getSimpleName());
+			try(QueryResult result = this.databaseManager.getResult(called(query))){
+				ResultSet resultData = result.getResultSet();
+				int index = resultData.findColumn(column);
+				while(result.next()) {
+					Object tocast = resultData.getObject(index);
+					try {
+						T casted = safeCast(tocast, columnType);
+						S outputObject = packing.pack(casted, returnType);
+						if(casted != null) resultList.add(outputObject);
+					} catch (Exception e) {
+						throw new DatabaseTableException("Could not cast " + tocast.getClass().getSimpleName() + " to " + columnType.getSimpleName());
+					}
 				}
 			}
 		}else {
@@ -111,78 +211,254 @@ public class DatabaseTable {
 	}
 	
 	public<T> List<T> getAllDatabaseObject(Class<T> t, QueryObject query, int... argGroup) throws DatabaseTableException, SQLException, IllegalArgumentException, IllegalAccessException, InstantiationException, InvocationTargetException{
-		if(!t.isAnnotationPresent(DatabaseObject.class)) {
+		EntityMapper<T> mapper = EntityMapper.of(t);
+		if(!mapper.isDatabaseObject()) {
 			throw new DatabaseTableException("Can not get non database object from database! Add @" + DatabaseObject.class.getSimpleName() + " Annotaiton to the object you want to construt.");
 		}
-		Constructor<?> myConstructor = getConstructorForClass(t);
-				
-		ResultSet resultData = this.databaseManager.getData(query);
-		
-		List<Integer> groupsOfField = new ArrayList<>(argGroup.length);
-		for(int i : argGroup) groupsOfField.add(i);
+		getConstructorForClass(mapper);
+		List<EntityMapper.Column> columns = mapper.getColumns(argGroup);
+		query = query.withProjection(t, argGroup);
 		
 		List<T> buildObjects = new ArrayList<T>();
-		while(resultData.next()) {
-			Object newInstance = fillObjectWithData(myConstructor, resultData, groupsOfField);
-			T castedObject = safeCast(newInstance, t);
-			if(castedObject != null) {
-				buildObjects.add(castedObject);
+		try(QueryResult result = this.databaseManager.getResult(called(query))){
+			ResultSet resultData = result.getResultSet();
+			int[] columnIndexes = null;
+			while(result.next()) {
+				if(columnIndexes == null) columnIndexes = ColumnPlan.of(resultData, columns, t).getIndexes();
+				Object newInstance = fillObjectWithData(mapper, resultData, columns, columnIndexes);
+				T castedObject = safeCast(newInstance, t);
+				if(castedObject != null) {
+					buildObjects.add(castedObject);
+				}
 			}
 		}
 		
 		return buildObjects;
 	}
 	
+	/**
+	 * Streams all objects of the query instead of collecting them into a list.<br>
+	 * The rows are fetched in chunks of {@link DatabaseInfo#getStreamFetchSize()} and mapped while the stream is consumed.
+	 * The connection is held until the stream is exhausted or closed, so use the stream with try-with-resources.
+	 * 
+	 * @exception com.simpledb.exceptions.DatabaseStreamException Is thrown while consuming the stream if a row can not be read.
+	 * */
+	public<T> Stream<T> streamAllDatabaseObject(Class<T> t, String queryName, int... argGroup) throws SQLException, DatabaseTableException{
+		return streamAllDatabaseObject(t, new QueryObject(queryName, tableName), argGroup);
+	}
+	
+	/**
+	 * Streams all objects of the query instead of collecting them into a list.<br>
+	 * The rows are fetched in chunks of {@link DatabaseInfo#getStreamFetchSize()} and mapped while the stream is consumed.
+	 * The connection is held until the stream is exhausted or closed, so use the stream with try-with-resources.
+	 * 
+	 * @exception com.simpledb.exceptions.DatabaseStreamException Is thrown while consuming the stream if a row can not be read.
+	 * */
+	public<T> Stream<T> streamAllDatabaseObject(Class<T> t, QueryObject query, int... argGroup) throws SQLException, DatabaseTableException{
+		EntityMapper<T> mapper = EntityMapper.of(t);
+		if(!mapper.isDatabaseObject()) {
+			throw new DatabaseTableException("Can not get non database object from database! Add @" + DatabaseObject.class.getSimpleName() + " Annotaiton to the object you want to construt.");
+		}
+		getConstructorForClass(mapper);
+		int[] groups = argGroup.length > 0 ? argGroup : new int[] {0};
+		List<EntityMapper.Column> columns = mapper.getColumns(groups);
+		query = query.withProjection(t, groups);
+		
+		int[][] columnIndexes = new int[1][];
+		return ResultStream.of(this.databaseManager.getStreamingResult(called(query)), resultData -> {
+			if(columnIndexes[0] == null) columnIndexes[0] = ColumnPlan.of(resultData, columns, t).getIndexes();
+			return safeCast(fillObjectWithData(mapper, resultData, columns, columnIndexes[0]), t);
+		});
+	}
+	
+	/**
+	 * Streams the values of one column instead of collecting them into a list.<br>
+	 * Like {@link #getColumn(Class, QueryObject, String)} values that are not of type T are skipped.
+	 * The connection is held until the stream is exhausted or closed, so use the stream with try-with-resources.
+	 * */
+	public<T> Stream<T> streamColumn(Class<T> t, String queryName, String column) throws SQLException, DatabaseTableException{
+		return streamColumn(t, new QueryObject(queryName, this.tableName), column);
+	}
+	
+	/**
+	 * Streams the values of one column instead of collecting them into a list.<br>
+	 * Like {@link #getColumn(Class, QueryObject, String)} values that are not of type T are skipped.
+	 * The connection is held until the stream is exhausted or closed, so use the stream with try-with-resources.
+	 * */
+	public<T> Stream<T> streamColumn(Class<T> t, QueryObject query, String column) throws SQLException, DatabaseTableException{
+		if(!templateTypes.contains(t)) {
+			throw new DatabaseTableException("Argument T was not a base type arguemnt but instead: " + t.getSimpleName());
+		}
+		int[] index = new int[1];
+		return ResultStream.of(this.databaseManager.getStreamingResult(called(query)), resultData -> {
+			if(index[0] == 0) index[0] = resultData.findColumn(column);
+			return safeCast(resultData.getObject(index[0]), t);
+		}).filter(Objects::nonNull);
+	}
+	
 	public<T> T getDatabaseObject(Class<T> clazz, T t, String queryName) throws InstantiationException, IllegalAccessException, InvocationTargetException, SQLException, DatabaseTableException, QueryObjectException {
 		return getDatabaseObject(clazz, t, queryName, 0);
 	}
 	
 	public<T> T getDatabaseObject(Class<T> clazz, T t, String queryName, int... argGroup) throws InstantiationException, IllegalAccessException, InvocationTargetException, SQLException, DatabaseTableException, QueryObjectException{
 		
-		Constructor<?> myConstructor = getConstructorForClass(clazz);
+		EntityMapper<T> mapper = EntityMapper.of(clazz);
+		getConstructorForClass(mapper);
 				
 		QueryObject selectFieldData = new QueryObject(queryName, this.tableName);
+		selectFieldData.setProjection(clazz, argGroup);
 		selectFieldData.addValues(t, argGroup);
+		List<EntityMapper.Column> columns = mapper.getColumns(argGroup);
 		
-		ResultSet resultData = this.databaseManager.getData(selectFieldData);
-		resultData.next();
-		List<Integer> groupsOfField = new ArrayList<>(argGroup.length);
-		for(int i : argGroup) groupsOfField.add(i);
-		
-		Object newInstance = fillObjectWithData(myConstructor, resultData, groupsOfField);
+		EntityCache cache = this.databaseManager.getEntityCache(this.tableName);
+		Object key = null;
+		long generation = 0;
+		if(cache != null) {
+			key = EntityCache.key(clazz, columns, selectFieldData);
+			Object[] values = cache.get(key);
+			if(values != null) return safeCast(copyObject(mapper, columns, values), clazz);
+			generation = cache.getGeneration();
+		}
 		
-		return safeCast(newInstance, clazz);
+		try(QueryResult result = this.databaseManager.getResult(called(selectFieldData))){
+			ResultSet resultData = result.getResultSet();
+			boolean found = result.next();
+			Object newInstance = fillObjectWithData(mapper, resultData, columns, ColumnPlan.of(resultData, columns, clazz).getIndexes());
+			if(cache != null && found) cache.put(key, readValues(newInstance, columns), generation);
+			return safeCast(newInstance, clazz);
+		}
 	}
 	
-	private Object fillObjectWithData(Constructor<?> constructor, ResultSet resultData , Collection<Integer> groups) throws IllegalAccessException, SQLException, InstantiationException, InvocationTargetException, DatabaseTableException {
-		Object newInstance = constructor.newInstance();
-		
-		for(Field f : newInstance.getClass().getDeclaredFields()) {
-			f.setAccessible(true);
-			if(f.isAnnotationPresent(DatabaseField.class)) {
-				if(templateTypes.contains(f.getType())) {
-					if(DatabaseField.util.inSameGroup(groups, f.getAnnotation(DatabaseField.class).groups())) {
-						String columnName = f.getAnnotation(DatabaseField.class).columnName();
-						if(columnName.equals("") || columnName == null) columnName = f.getName();
-						f.set(newInstance, resultData.getObject(columnName));
-					}
-				}else {
-					throw new DatabaseTableException("Can not read field of type: " + f.getType().getSimpleName() + " as value type in: " + newInstance.getClass().getSimpleName());
-				}
+	/**
+	 * Reads the objects of this table page by page ordered by the key column, see {@link KeysetPager}.<br>
+	 * Only the columns of the given groups and the key column are selected. The key column has to be unique,
+	 * rows with a key equal to the last key of a page are skipped.
+	 * 
+	 * @param keyColumn The name of a unique column, ideally the primary key.
+	 * @param pageSize The number of objects per page.
+	 * */
+	public<T> KeysetPager<T> pages(Class<T> t, String keyColumn, int pageSize, int... argGroup) throws DatabaseTableException {
+		if(keyColumn == null || keyColumn.isEmpty()) throw new IllegalArgumentException("Key column can not be empty!");
+		if(pageSize < 1) throw new IllegalArgumentException("Page size has to be at least 1!");
+		EntityMapper<T> mapper = EntityMapper.of(t);
+		if(!mapper.isDatabaseObject()) {
+			throw new DatabaseTableException("Can not get non database object from database! Add @" + DatabaseObject.class.getSimpleName() + " Annotaiton to the object you want to construt.");
+		}
+		getConstructorForClass(mapper);
+		return new KeysetPager<>(this, this.databaseManager, t, keyColumn, pageSize, argGroup.length > 0 ? argGroup : new int[] {0});
+	}
+	
+	/**
+	 * Enables the entity cache of this table, see {@link DatabaseManager#enableEntityCache(String, int, long)}.
+	 * */
+	public void enableCache(int maxSize, long ttlMillis) {
+		this.databaseManager.enableEntityCache(this.tableName, maxSize, ttlMillis);
+	}
+	
+	public void disableCache() {
+		this.databaseManager.disableEntityCache(this.tableName);
+	}
+	
+	public CacheStats getCacheStats() {
+		return this.databaseManager.getEntityCacheStats(this.tableName);
+	}
+	
+	/**
+	 * Inserts all objects with JDBC batches.<br>
+	 * For every object a query with the given query name is constructed in bind parameter mode,
+	 * so the registered constructor has to emit placeholders for the value list.
+	 * 
+	 * @return The update counts for all objects in iteration order.
+	 * */
+	public<T> int[] insertAll(Collection<T> objects, String queryName, int... argGroup) throws QueryObjectException, QueryException {
+		return executeAll(objects, queryName, argGroup);
+	}
+	
+	/**
+	 * Updates all objects with JDBC batches, the query is constructed like for {@link #insertAll(Collection, String, int...)}.
+	 * 
+	 * @return The update counts for all objects in iteration order.
+	 * */
+	public<T> int[] updateAll(Collection<T> objects, String queryName, int... argGroup) throws QueryObjectException, QueryException {
+		return executeAll(objects, queryName, argGroup);
+	}
+	
+	private<T> int[] executeAll(Collection<T> objects, String queryName, int... argGroup) throws QueryObjectException, QueryException {
+		List<QueryObject> queries = new ArrayList<>(objects.size());
+		for(T o : objects) {
+			QueryObject q = called(new QueryObject(queryName, this.tableName));
+			q.setBindParameters(true);
+			if(argGroup.length > 0) {
+				q.addValues(o, argGroup);
+			}else {
+				q.addValues(o, 0);
 			}
+			queries.add(q);
+		}
+		return this.databaseManager.executeBatch(queries);
+	}
+	
+	/**
+	 * Inserts the object or updates the row with the same key in one statement, see {@link QueryObject#constructUpsert(QueryObject)}.<br>
+	 * The key columns are marked with <code>@DatabaseField(key = true)</code> and have to be in the given groups.
+	 * 
+	 * @return The affected rows, on MySQL 1 for an insert and 2 for an update.
+	 * */
+	public<T> int upsert(T object, int... argGroup) throws QueryObjectException, QueryException {
+		QueryObject q = called(new QueryObject("UPSERT", this.tableName));
+		q.setBindParameters(true);
+		q.addValues(object, argGroup.length > 0 ? argGroup : new int[] {0});
+		return this.databaseManager.executeUpdate(q);
+	}
+	
+	/**
+	 * Upserts all objects with JDBC batches, see {@link #upsert(Object, int...)}.
+	 * 
+	 * @return The update counts for all objects in iteration order.
+	 * */
+	public<T> int[] upsertAll(Collection<T> objects, int... argGroup) throws QueryObjectException, QueryException {
+		return executeAll(objects, "UPSERT", argGroup);
+	}
+	
+	/**
+	 * Marks this table as the caller of the query, so statement listeners can tell where a statement came from.
+	 * */
+	private QueryObject called(QueryObject query) {
+		query.setCaller(this);
+		return query;
+	}
+	
+	static Object fillObjectWithData(EntityMapper<?> mapper, ResultSet resultData, List<EntityMapper.Column> columns, int[] columnIndexes) throws IllegalAccessException, SQLException, DatabaseTableException {
+		if(mapper.getReadError() != null) {
+			throw new DatabaseTableException(mapper.getReadError());
+		}
+		Object newInstance = mapper.newInstance();
+		
+		for(int i = 0; i < columnIndexes.length; ++i) {
+			if(columnIndexes[i] > 0) columns.get(i).read(newInstance, resultData, columnIndexes[i]);
 		}
 		return newInstance;
 	}
 	
-	private Constructor<?> getConstructorForClass(Class<?> clazz){
-		Constructor<?>[] constructors = clazz.getConstructors();
-		Constructor<?> myConstructor = null;
-		for(Constructor<?> c : constructors) {
-			if(c.isAnnotationPresent(DatabaseObjectConstructor.class)) {
-				myConstructor = c;
-				break;
-			}
+	private static Object copyObject(EntityMapper<?> mapper, List<EntityMapper.Column> columns, Object[] values) throws DatabaseTableException {
+		Object newInstance = mapper.newInstance();
+		for(int i = 0; i < values.length; ++i) {
+			if(columns.get(i).isField()) columns.get(i).set(newInstance, values[i]);
 		}
+		return newInstance;
+	}
+	
+	private static Object[] readValues(Object o, List<EntityMapper.Column> columns) throws QueryObjectException {
+		Object[] values = new Object[columns.size()];
+		for(int i = 0; i < values.length; ++i) {
+			if(columns.get(i).isField()) values[i] = columns.get(i).get(o);
+		}
+		return values;
+	}
+	
+	private Constructor<?> getConstructorForClass(EntityMapper<?> mapper){
+		Class<?> clazz = mapper.getType();
+		Constructor<?> myConstructor = mapper.getObjectConstructor();
 		if(myConstructor == null)
 			throw new IllegalArgumentException("Can not find constructor for: " + clazz.getSimpleName() + ". Declair a constructor with @" + DatabaseObjectConstructor.class.getSimpleName());
 		
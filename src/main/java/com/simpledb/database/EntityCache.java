@@ -0,0 +1,94 @@
+package com.simpledb.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A least recently used cache of the objects read by {@link DatabaseTable#getDatabaseObject(Class, Object, String, int...)}
+ * for one table.<br>
+ * Entries hold the field values of an object, every hit creates a new object so callers never share instances.
+ * Entries expire after the time to live and the whole cache is cleared whenever its table is written.
+ * */
+class EntityCache {
+
+	private static final class Entry {
+		private final Object[] values;
+		private final long expires;
+
+		private Entry(Object[] values, long expires) {
+			this.values = values;
+			this.expires = expires;
+		}
+	}
+
+	private final int maxSize;
+	private final long ttl;
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final CacheStats stats = new CacheStats();
+	private long generation = 0;
+
+	EntityCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttl = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+	/**
+	 * Returns the cache key of an object lookup. The SQL and the bound values identify the row, the columns identify what was read.
+	 * */
+	static Object key(Class<?> type, List<EntityMapper.Column> columns, QueryObject query) {
+		return Arrays.asList(type, columns, query.getQuery(), new ArrayList<>(query.getParameterList()));
+	}
+
+	CacheStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Returns the field values stored for the key or null if there are none or they expired.
+	 * */
+	synchronized Object[] get(Object key) {
+		Entry e = entries.get(key);
+		if(e != null && e.expires - System.nanoTime() < 0) {
+			entries.remove(key);
+			e = null;
+		}
+		if(e == null) {
+			stats.miss();
+			return null;
+		}
+		stats.hit();
+		return e.values;
+	}
+
+	/**
+	 * Returns the generation that has to be passed to {@link #put(Object, Object[], long)}.<br>
+	 * Read it before the query runs, so a value read before an invalidation is not stored after it.
+	 * */
+	synchronized long getGeneration() {
+		return generation;
+	}
+
+	synchronized void put(Object key, Object[] values, long generation) {
+		if(generation != this.generation) return;
+		entries.put(key, new Entry(values, System.nanoTime() + ttl));
+		Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+		while(entries.size() > maxSize && it.hasNext()) {
+			it.next();
+			it.remove();
+			stats.eviction();
+		}
+	}
+
+	synchronized void invalidate() {
+		++generation;
+		if(entries.isEmpty()) return;
+		entries.clear();
+		stats.invalidation();
+	}
+
+}
@@ -0,0 +1,528 @@
+package com.simpledb.database;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.simpledb.annotations.DatabaseConstructor;
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.exceptions.DatabaseTableException;
+import com.simpledb.exceptions.QueryObjectException;
+
+/**
+ * The resolved database metadata of a class.<br>
+ * The annotations, accessors and converters of a class are read once and cached per class,
+ * so reading and writing objects does not have to scan the class again for every object or row.<br>
+ * Annotated methods and the no argument constructor are called through classes spun by the {@link LambdaMetafactory},
+ * which the JIT can inline like a normal call. Fields, which the metafactory can not target, and the constructor with arguments
+ * go through method handles. These handles are held per mapper and not constant, so they skip the access checks and argument
+ * arrays of reflection but are not inlined like the generated classes. Primitive fields are read with the typed result set getters,
+ * so mapping a row does not box the values.
+ * */
+class EntityMapper<T> {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<>() {
+		@Override
+		protected EntityMapper<?> computeValue(Class<?> type) {
+			return new EntityMapper<>(type);
+		}
+	};
+
+	/**
+	 * Returns the mapper for the given class.<br>
+	 * Mappers that were built before a converter was registered are rebuilt so they pick up the new converter.
+	 * */
+	@SuppressWarnings("unchecked")
+	static <T> EntityMapper<T> of(Class<T> type) {
+		EntityMapper<?> mapper = MAPPERS.get(type);
+		if(mapper.converterVersion != QueryObject.getConverterVersion()) {
+			MAPPERS.remove(type);
+			mapper = MAPPERS.get(type);
+		}
+		return (EntityMapper<T>)mapper;
+	}
+
+	private final Class<T> type;
+	private final int converterVersion;
+	private final boolean databaseObject;
+	private final Constructor<?> objectConstructor;
+	private final Constructor<?> databaseConstructor;
+	private final Supplier<Object> objectFactory;
+	private final MethodHandle databaseFactory;
+	private final List<Column> columns;
+	private final List<Column> keyColumns;
+	private final String writeError;
+	private final String readError;
+	private final Map<Long, List<Column>> selections = new ConcurrentHashMap<>();
+	private final Map<Long, String> columnLists = new ConcurrentHashMap<>();
+
+	private EntityMapper(Class<T> type) {
+		this.type = type;
+		this.converterVersion = QueryObject.getConverterVersion();
+		this.databaseObject = type.isAnnotationPresent(DatabaseObject.class);
+
+		Constructor<?> objectConstructor = null;
+		Constructor<?> databaseConstructor = null;
+		for(Constructor<?> c : type.getConstructors()) {
+			if(objectConstructor == null && c.isAnnotationPresent(DatabaseObjectConstructor.class)) objectConstructor = c;
+			if(databaseConstructor == null && c.isAnnotationPresent(DatabaseConstructor.class)) databaseConstructor = c;
+		}
+		this.objectConstructor = objectConstructor;
+		this.databaseConstructor = databaseConstructor;
+		this.objectFactory = objectConstructor != null && objectConstructor.getParameterCount() == 0 ? factory(objectConstructor) : null;
+		this.databaseFactory = databaseConstructor != null
+				? unreflect(databaseConstructor).asSpreader(Object[].class, databaseConstructor.getParameterCount()).asType(MethodType.methodType(Object.class, Object[].class)) : null;
+
+		List<Column> columns = new ArrayList<>();
+		String writeError = null;
+		String readError = null;
+		for(Field f : type.getDeclaredFields()) {
+			if(!f.isAnnotationPresent(DatabaseField.class)) continue;
+			f.setAccessible(true);
+			if(writeError == null && !QueryObject.hasConverter(f.getType()))
+				writeError = "Can not read field of type: " + f.getType().getSimpleName() + " as argument type in: " + type.getSimpleName();
+			if(readError == null && !DatabaseTable.templateTypes.contains(f.getType()) && !QueryObject.hasConverter(f.getType()))
+				readError = "Can not read field of type: " + f.getType().getSimpleName() + " as value type in: " + type.getSimpleName();
+			columns.add(new Column(f.getAnnotation(DatabaseField.class), f, null));
+		}
+		for(Method m : type.getDeclaredMethods()) {
+			if(!m.isAnnotationPresent(DatabaseField.class)) continue;
+			m.setAccessible(true);
+			columns.add(new Column(m.getAnnotation(DatabaseField.class), null, m));
+		}
+		this.columns = Collections.unmodifiableList(columns);
+		List<Column> keyColumns = new ArrayList<>();
+		for(Column c : columns) {
+			if(c.isKey()) keyColumns.add(c);
+		}
+		this.keyColumns = Collections.unmodifiableList(keyColumns);
+		this.writeError = writeError;
+		this.readError = readError;
+	}
+
+	Class<T> getType() {
+		return type;
+	}
+
+	boolean isDatabaseObject() {
+		return databaseObject;
+	}
+
+	/**
+	 * Returns the constructor annotated with {@link DatabaseObjectConstructor} or null if there is none.
+	 * */
+	Constructor<?> getObjectConstructor() {
+		return objectConstructor;
+	}
+
+	/**
+	 * Returns the constructor annotated with {@link DatabaseConstructor} or null if there is none.
+	 * */
+	Constructor<?> getDatabaseConstructor() {
+		return databaseConstructor;
+	}
+
+	/**
+	 * Creates a new instance with the constructor annotated with {@link DatabaseObjectConstructor}.
+	 * */
+	Object newInstance() throws DatabaseTableException {
+		try {
+			return objectFactory.get();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new DatabaseTableException("Constructor of " + type.getSimpleName() + " throw an error: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates a new instance with the constructor annotated with {@link DatabaseConstructor}.
+	 * */
+	Object newInstance(Object[] args) throws QueryObjectException {
+		try {
+			return (Object)databaseFactory.invokeExact(args);
+		} catch (ClassCastException | NullPointerException e) {
+			throw new QueryObjectException("Illegal arguments passed to constructor!");
+		} catch (RuntimeException | Error e) {
+			throw new QueryObjectException("Construct throw an error: " + e.getMessage());
+		} catch (Throwable e) {
+			throw new QueryObjectException("Construct throw an error: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the error message for a field that can not be written to the database or null if all fields can be written.
+	 * */
+	String getWriteError() {
+		return writeError;
+	}
+
+	/**
+	 * Returns the error message for a field that can not be read from the database or null if all fields can be read.
+	 * */
+	String getReadError() {
+		return readError;
+	}
+
+	/**
+	 * Returns the columns of all fields and methods that are in at least one of the given groups.<br>
+	 * Fields come before methods like they are declared in the class.
+	 * */
+	List<Column> getColumns(int... groups) {
+		long mask = groupMask(groups);
+		if(mask == 0) return selectColumns(groups, 0);
+		List<Column> selection = selections.get(mask);
+		if(selection == null) {
+			selection = selectColumns(groups, mask);
+			selections.put(mask, selection);
+		}
+		return selection;
+	}
+
+	/**
+	 * Returns the comma separated names of the field columns in the given groups or null if there are none.<br>
+	 * Method columns are only written, so they are not part of the list.
+	 * */
+	String getColumnList(int... groups) {
+		long mask = groupMask(groups);
+		String list = mask != 0 ? columnLists.get(mask) : null;
+		if(list == null) {
+			StringBuilder sb = new StringBuilder();
+			for(Column c : getColumns(groups)) {
+				if(!c.isField()) continue;
+				if(sb.length() > 0) sb.append(", ");
+				sb.append(c.getColumnName());
+			}
+			list = sb.length() > 0 ? sb.toString() : null;
+			if(mask != 0 && list != null) columnLists.put(mask, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the columns marked with <code>@DatabaseField(key = true)</code> of all groups.
+	 * */
+	List<Column> getKeyColumns() {
+		return keyColumns;
+	}
+
+	private List<Column> selectColumns(int[] groups, long mask) {
+		Set<Integer> groupSet = null;
+		List<Column> selection = new ArrayList<>();
+		for(Column c : columns) {
+			boolean matches;
+			if(mask != 0 && c.groupMask != 0) {
+				matches = (c.groupMask & mask) != 0;
+			}else {
+				if(groupSet == null) {
+					groupSet = new HashSet<>();
+					for(int i : groups) groupSet.add(i);
+				}
+				matches = DatabaseField.util.inSameGroup(groupSet, c.groups);
+			}
+			if(matches) selection.add(c);
+		}
+		return Collections.unmodifiableList(selection);
+	}
+
+	/**
+	 * Returns the groups as a bitmask or 0 if one of the groups does not fit into a long.
+	 * */
+	private static long groupMask(int[] groups) {
+		long mask = 0;
+		for(int g : groups) {
+			if(g < 0 || g > 63) return 0;
+			mask |= 1L << g;
+		}
+		return mask;
+	}
+
+	private static MethodHandle unreflect(Constructor<?> constructor) {
+		try {
+			return LOOKUP.unreflectConstructor(constructor);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Can not access constructor of: " + constructor.getDeclaringClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Returns a factory that calls the no argument constructor directly.<br>
+	 * Falls back to a method handle if the class can not be linked, for example in a named module that is not opened.
+	 * */
+	@SuppressWarnings("unchecked")
+	private static Supplier<Object> factory(Constructor<?> constructor) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(constructor.getDeclaringClass(), LOOKUP);
+			CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+					MethodType.methodType(Object.class), lookup.unreflectConstructor(constructor), MethodType.methodType(Object.class));
+			return (Supplier<Object>)site.getTarget().invokeExact();
+		} catch (Throwable e) {
+			MethodHandle mh = unreflect(constructor).asType(MethodType.methodType(Object.class));
+			return () -> {
+				try {
+					return (Object)mh.invokeExact();
+				} catch (Throwable t) {
+					throw sneakyThrow(t);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Returns a function that calls the method without arguments on its argument directly or null if it can not be linked.
+	 * */
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> accessor(Method method) {
+		if(method.getParameterCount() != 0 || method.getReturnType() == void.class || Modifier.isStatic(method.getModifiers())) return null;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+			CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class), lookup.unreflect(method), MethodType.methodType(Object.class, method.getDeclaringClass()));
+			return (Function<Object, Object>)site.getTarget().invokeExact();
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Rethrows a checked exception of a constructor without wrapping it, like a direct call would.
+	 * */
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> E sneakyThrow(Throwable e) throws E {
+		throw (E)e;
+	}
+
+	/**
+	 * Reads one column of the current row and writes it into the field of the target object.
+	 * */
+	@FunctionalInterface
+	private interface FieldReader {
+		public void read(Object target, ResultSet rs, int index) throws Throwable;
+	}
+
+	private static FieldReader fieldReader(Field field) {
+		MethodHandle setter;
+		try {
+			setter = LOOKUP.unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			return (t, rs, i) -> {
+				throw new IllegalAccessException("Can not set field: " + field.getName());
+			};
+		}
+		Class<?> type = field.getType();
+		if(type == int.class) {
+			MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+			return (t, rs, i) -> {
+				mh.invokeExact(t, rs.getInt(i));
+			};
+		}
+		if(type == long.class) {
+			MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+			return (t, rs, i) -> {
+				mh.invokeExact(t, rs.getLong(i));
+			};
+		}
+		if(type == boolean.class) {
+			MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+			return (t, rs, i) -> {
+				mh.invokeExact(t, rs.getBoolean(i));
+			};
+		}
+		if(type == short.class) {
+			MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, short.class));
+			return (t, rs, i) -> {
+				mh.invokeExact(t, rs.getShort(i));
+			};
+		}
+		if(type == byte.class) {
+			MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, byte.class));
+			return (t, rs, i) -> {
+				mh.invokeExact(t, rs.getByte(i));
+			};
+		}
+		MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		if(type == String.class) return (t, rs, i) -> {
+			mh.invokeExact(t, (Object)rs.getString(i));
+		};
+		if(type == Integer.class) return (t, rs, i) -> {
+			int v = rs.getInt(i);
+			mh.invokeExact(t, (Object)(rs.wasNull() ? null : v));
+		};
+		if(type == Long.class) return (t, rs, i) -> {
+			long v = rs.getLong(i);
+			mh.invokeExact(t, (Object)(rs.wasNull() ? null : v));
+		};
+		if(type == Boolean.class) return (t, rs, i) -> {
+			boolean v = rs.getBoolean(i);
+			mh.invokeExact(t, (Object)(rs.wasNull() ? null : v));
+		};
+		if(type == Short.class) return (t, rs, i) -> {
+			short v = rs.getShort(i);
+			mh.invokeExact(t, (Object)(rs.wasNull() ? null : v));
+		};
+		if(type == Byte.class) return (t, rs, i) -> {
+			byte v = rs.getByte(i);
+			mh.invokeExact(t, (Object)(rs.wasNull() ? null : v));
+		};
+		TypeConverter converter = QueryObject.getConverter(type);
+		if(converter != null) return (t, rs, i) -> {
+			mh.invokeExact(t, converter.read(rs, i));
+		};
+		return (t, rs, i) -> {
+			mh.invokeExact(t, rs.getObject(i));
+		};
+	}
+
+	/**
+	 * A field or method annotated with {@link DatabaseField}.
+	 * */
+	static class Column {
+
+		private final String columnName;
+		private final int[] groups;
+		private final long groupMask;
+		private final boolean key;
+		private final Field field;
+		private final Method method;
+		private final Class<?> type;
+		private final QueryObject.ConvertFrom converter;
+		private final Function<Object, Object> accessor;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final FieldReader reader;
+
+		private Column(DatabaseField annotation, Field field, Method method) {
+			this.field = field;
+			this.method = method;
+			this.type = field != null ? field.getType() : method.getReturnType();
+			this.accessor = method != null ? accessor(method) : null;
+			this.getter = this.accessor == null ? getter(field, method) : null;
+			this.setter = field != null ? setter(field) : null;
+			this.reader = field != null ? fieldReader(field) : null;
+			String name = annotation.columnName();
+			this.columnName = name == null || name.equals("") ? (field != null ? field.getName() : method.getName()) : name;
+			this.groups = annotation.groups();
+			this.groupMask = groupMask(this.groups);
+			this.key = annotation.key();
+			TypeConverter converter = QueryObject.getConverter(this.type);
+			this.converter = converter != null ? converter.getConvertFrom() : null;
+		}
+
+		String getColumnName() {
+			return columnName;
+		}
+
+		Class<?> getType() {
+			return type;
+		}
+
+		boolean isKey() {
+			return key;
+		}
+
+		boolean isField() {
+			return field != null;
+		}
+
+		/**
+		 * Returns the error message if this column can not be written to the database or null if it can be.
+		 * */
+		String getWriteError(Class<?> owner) {
+			if(method == null) return null;
+			if(method.getParameterCount() > 0)
+				return "Can not read function with @DatabaseFieldType annotation because it has to many argumetns. Functions with the @DatabaseFieldType annotation can not have any arguments";
+			if(converter == null)
+				return "QueryObject error for: " + owner.getSimpleName() + ".\nFunctions with @DatabaseFieldType can not have return type: " + method.getReturnType().getSimpleName();
+			return null;
+		}
+
+		QueryObject.ConvertFrom getConverter() {
+			return converter;
+		}
+
+		/**
+		 * Reads the value of the field or calls the method on the given object.
+		 * */
+		Object get(Object target) throws QueryObjectException {
+			if(getter == null && accessor == null) {
+				throw new QueryObjectException("Could not access " + (field != null ? "field: " + field.getName() : "function: " + method.getName()) + " on object: " + target.getClass().getName());
+			}
+			try {
+				return accessor != null ? accessor.apply(target) : (Object)getter.invokeExact(target);
+			} catch (ClassCastException e) {
+				throw new QueryObjectException("IllegalArgumentException");
+			} catch (Throwable e) {
+				if(field != null) throw new QueryObjectException("Could not get value form field: " + field.getName());
+				throw new QueryObjectException("Target function caused an exception: " + e.getClass().getSimpleName() + " | with message: " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Reads the column at the given index of the current row into the field of the given object.<br>
+		 * Primitive fields are read with the matching typed getter and assigned without boxing.
+		 * */
+		void read(Object target, ResultSet rs, int index) throws SQLException, IllegalAccessException, DatabaseTableException {
+			try {
+				reader.read(target, rs, index);
+			} catch (SQLException | IllegalAccessException | RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new DatabaseTableException("Could not set field: " + field.getName() + " | with message: " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Sets the field of the given object to a value that was read before, boxed primitives are unboxed.
+		 * */
+		void set(Object target, Object value) throws DatabaseTableException {
+			if(setter == null) throw new DatabaseTableException("Can not set field: " + field.getName());
+			try {
+				setter.invokeExact(target, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new DatabaseTableException("Could not set field: " + field.getName() + " | with message: " + e.getMessage());
+			}
+		}
+
+		private static MethodHandle setter(Field field) {
+			try {
+				return LOOKUP.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				return null;
+			}
+		}
+
+		private static MethodHandle getter(Field field, Method method) {
+			try {
+				MethodHandle mh = field != null ? LOOKUP.unreflectGetter(field) : LOOKUP.unreflect(method);
+				if(mh.type().parameterCount() != 1) return null;
+				return mh.asType(MethodType.methodType(Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				return null;
+			}
+		}
+
+	}
+
+}
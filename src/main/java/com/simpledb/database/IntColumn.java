@@ -0,0 +1,52 @@
+package com.simpledb.database;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A growable array of int values read from a single column without boxing.
+ * */
+public class IntColumn {
+
+	private int[] values;
+	private int size = 0;
+
+	IntColumn() {
+		this.values = new int[16];
+	}
+
+	void add(int value) {
+		if(size == values.length) values = Arrays.copyOf(values, values.length << 1);
+		values[size++] = value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int get(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		return values[index];
+	}
+
+	/**
+	 * Returns a copy of the values trimmed to the size of the column.
+	 * */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	public IntStream stream() {
+		return Arrays.stream(values, 0, size);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+}
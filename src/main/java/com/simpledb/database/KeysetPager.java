@@ -0,0 +1,162 @@
+package com.simpledb.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.simpledb.exceptions.DatabaseStreamException;
+import com.simpledb.exceptions.DatabaseTableException;
+
+/**
+ * Reads the objects of a table page by page in the order of a unique key column, see {@link DatabaseTable#pages(Class, String, int, int...)}.<br>
+ * Every page after the first is read with <code>WHERE key &gt; ? ORDER BY key LIMIT n</code> from the last key of the previous page,
+ * so a deep page costs the same as the first one. All following pages share the same SQL, the prepared statement is reused
+ * from the statement cache. A connection is only borrowed while a page is read.<br>
+ * Rows inserted after the current position show up on later pages, rows changed before it are not read again.
+ * */
+public class KeysetPager<T> implements Iterable<List<T>> {
+
+	private final DatabaseTable table;
+	private final DatabaseManager manager;
+	private final Class<T> type;
+	private final EntityMapper<T> mapper;
+	private final List<EntityMapper.Column> columns;
+	private final String keyColumn;
+	private final String firstSql;
+	private final String nextSql;
+	private Object lastKey = null;
+	private boolean started = false;
+	private boolean done = false;
+
+	KeysetPager(DatabaseTable table, DatabaseManager manager, Class<T> type, String keyColumn, int pageSize, int... groups) {
+		this.table = table;
+		this.manager = manager;
+		this.type = type;
+		this.mapper = EntityMapper.of(type);
+		this.columns = mapper.getColumns(groups);
+		this.keyColumn = keyColumn;
+
+		String columnList = mapper.getColumnList(groups);
+		if(columnList == null) {
+			columnList = keyColumn;
+		}else if(!hasColumn(columns, keyColumn)) {
+			columnList = columnList + ", " + keyColumn;
+		}
+		String select = "SELECT " + columnList + " FROM " + table.getTableName();
+		String order = " ORDER BY " + keyColumn + " LIMIT " + pageSize;
+		this.firstSql = select + order;
+		this.nextSql = select + " WHERE " + keyColumn + " > ?" + order;
+	}
+
+	private static boolean hasColumn(List<EntityMapper.Column> columns, String name) {
+		for(EntityMapper.Column c : columns) {
+			if(c.isField() && c.getColumnName().toLowerCase(Locale.ROOT).equals(name.toLowerCase(Locale.ROOT))) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the next page.
+	 *
+	 * @return The objects of the page, an empty list once all pages have been read.
+	 * */
+	public List<T> nextPage() throws SQLException, DatabaseTableException {
+		List<T> page = new ArrayList<>();
+		if(done) return page;
+		QueryObject query = QueryObject.getQueryObject(started ? nextSql : firstSql);
+		if(started) {
+			query.setBindParameters(true);
+			query.getParameterList().add(lastKey);
+		}
+		query.setCaller(table);
+
+		Object key = lastKey;
+		try(QueryResult result = manager.getResult(query)) {
+			ResultSet rs = result.getResultSet();
+			int[] columnIndexes = null;
+			int keyIndex = 0;
+			while(result.next()) {
+				if(columnIndexes == null) {
+					columnIndexes = ColumnPlan.of(rs, columns, type).getIndexes();
+					keyIndex = ColumnPlan.indexes(rs, new String[] {keyColumn})[0];
+				}
+				page.add(DatabaseTable.safeCast(DatabaseTable.fillObjectWithData(mapper, rs, columns, columnIndexes), type));
+				key = rs.getObject(keyIndex);
+			}
+		} catch (IllegalAccessException e) {
+			throw new DatabaseTableException("Could not set field of " + type.getSimpleName() + ": " + e.getMessage());
+		}
+		started = true;
+		lastKey = key;
+		if(page.isEmpty()) done = true;
+		return page;
+	}
+
+	/**
+	 * Continues after the given key instead of the last key read, null starts again at the first page.
+	 * */
+	public void startAfter(Object key) {
+		this.lastKey = key;
+		this.started = key != null;
+		this.done = false;
+	}
+
+	/**
+	 * Returns the key of the last row read or null if no row has been read.
+	 * */
+	public Object getLastKey() {
+		return lastKey;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * Iterates over the remaining pages, the last page is the last non empty one.
+	 *
+	 * @exception DatabaseStreamException Is thrown by the iterator when a page can not be read.
+	 * */
+	@Override
+	public Iterator<List<T>> iterator() {
+		return new Iterator<List<T>>() {
+			private List<T> next = null;
+
+			@Override
+			public boolean hasNext() {
+				if(next == null && !done) {
+					try {
+						next = nextPage();
+					} catch (SQLException | DatabaseTableException e) {
+						throw new DatabaseStreamException("Could not read page: " + e.getMessage(), e);
+					}
+				}
+				return next != null && !next.isEmpty();
+			}
+
+			@Override
+			public List<T> next() {
+				if(!hasNext()) throw new NoSuchElementException();
+				List<T> page = next;
+				next = null;
+				return page;
+			}
+		};
+	}
+
+	/**
+	 * Streams the objects of the remaining pages, a page is only read once the stream reaches it.
+	 * */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false).flatMap(List::stream);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.simpledb.database;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of latencies in nanoseconds with log linear buckets.<br>
+ * Every power of two is split into {@value #SUB_BUCKETS} buckets, so a reported percentile is at most 12.5% above the
+ * recorded value. Values from 0 to <code>Long.MAX_VALUE</code> fit into a fixed array, recording never allocates or locks.
+ * */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public void record(long nanos) {
+		if(nanos < 0) nanos = 0;
+		counts.incrementAndGet(index(nanos));
+		count.increment();
+		sum.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	public double getMeanNanos() {
+		long n = getCount();
+		return n == 0 ? 0 : (double)sum.sum() / n;
+	}
+
+	/**
+	 * Returns the upper bound of the bucket that holds the given percentile or 0 if nothing was recorded.
+	 * 
+	 * @param percentile A value between 0 and 100, like 99 for the p99 latency.
+	 * */
+	public long getPercentileNanos(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for(int i = 0; i < BUCKETS; ++i) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if(total == 0) return 0;
+		long rank = Math.max(1, (long)Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; ++i) {
+			seen += snapshot[i];
+			if(seen >= rank) return Math.min(upperBound(i), getMaxNanos());
+		}
+		return getMaxNanos();
+	}
+
+	static int index(long value) {
+		if(value < SUB_BUCKETS) return (int)value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS;
+	}
+
+	static long upperBound(int index) {
+		if(index < SUB_BUCKETS) return index;
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+		long upper = ((SUB_BUCKETS + sub + 1) << shift) - 1;
+		return upper < 0 ? Long.MAX_VALUE : upper;
+	}
+
+	@Override
+	public String toString() {
+		return "Count:\t" + getCount() + "\nMean:\t" + (long)getMeanNanos() / 1000 + "us\np50:\t" + getPercentileNanos(50) / 1000
+			+ "us\np90:\t" + getPercentileNanos(90) / 1000 + "us\np99:\t" + getPercentileNanos(99) / 1000 + "us\nMax:\t" + getMaxNanos() / 1000 + "us";
+	}
+
+}
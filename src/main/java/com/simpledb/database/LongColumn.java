@@ -0,0 +1,52 @@
+package com.simpledb.database;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * A growable array of long values read from a single column without boxing.
+ * */
+public class LongColumn {
+
+	private long[] values;
+	private int size = 0;
+
+	LongColumn() {
+		this.values = new long[16];
+	}
+
+	void add(long value) {
+		if(size == values.length) values = Arrays.copyOf(values, values.length << 1);
+		values[size++] = value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long get(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		return values[index];
+	}
+
+	/**
+	 * Returns a copy of the values trimmed to the size of the column.
+	 * */
+	public long[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	public LongStream stream() {
+		return Arrays.stream(values, 0, size);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+}
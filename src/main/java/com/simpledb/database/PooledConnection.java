@@ -0,0 +1,107 @@
+package com.simpledb.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A connection owned by the {@link ConnectionPool}.<br>
+ * A pooled connection is only ever used by the thread that borrowed it until it is released again.
+ * */
+class PooledConnection {
+
+	private final ConnectionPool pool;
+	private final Connection connection;
+	private final StatementCache statementCache;
+	private long lastUsed;
+	private boolean pinned = false;
+	private boolean borrowed = false;
+
+	PooledConnection(ConnectionPool pool, Connection connection, StatementCache statementCache) {
+		this.pool = pool;
+		this.connection = connection;
+		this.statementCache = statementCache;
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	ConnectionPool getPool() {
+		return pool;
+	}
+
+	Connection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * Returns a prepared statement for the given SQL from the statement cache of this connection.<br>
+	 * The statement has to be handed back with {@link #returnStatement(String, PreparedStatement)} once it is no longer used.
+	 * */
+	PreparedStatement prepareStatement(String sql) throws SQLException {
+		return statementCache.checkout(connection, sql);
+	}
+
+	void returnStatement(String sql, PreparedStatement ps) {
+		if(ps == null) return;
+		try {
+			statementCache.checkin(sql, ps);
+		} catch (SQLException e) {
+			try {
+				ps.close();
+			} catch (SQLException e1) {
+				//The statement is dropped either way.
+			}
+		}
+	}
+
+	/**
+	 * Hands the connection back to its pool unless it is pinned to a running transaction.
+	 * */
+	void release() {
+		if(!pinned) pool.release(this);
+	}
+
+	boolean isPinned() {
+		return pinned;
+	}
+
+	void setPinned(boolean pinned) {
+		this.pinned = pinned;
+	}
+
+	/**
+	 * Tells whether the connection is handed out by its pool. Only read and changed while the pool is locked.
+	 * */
+	boolean isBorrowed() {
+		return borrowed;
+	}
+
+	void setBorrowed(boolean borrowed) {
+		this.borrowed = borrowed;
+	}
+
+	long getLastUsed() {
+		return lastUsed;
+	}
+
+	void touch() {
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	boolean isClosed() {
+		try {
+			return connection.isClosed();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+	void close() {
+		statementCache.close();
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			//The connection is discarded either way.
+		}
+	}
+
+}
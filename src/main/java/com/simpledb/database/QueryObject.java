@@ -1,22 +1,25 @@
 package com.simpledb.database;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import com.simpledb.annotations.DatabaseConstructor;
-import com.simpledb.annotations.DatabaseField;
-import com.simpledb.annotations.DatabaseObject;
 import com.simpledb.exceptions.QueryObjectException;
 
 public class QueryObject {
@@ -34,34 +37,96 @@ public class QueryObject {
 		public Object convert(String o);
 	}
 
-	private static Map<String, QueryConstructor> QuerryConstruction = new HashMap<>();
+	/**
+	 * Reads a value directly from a column of the current row of a result set.
+	 * */
+	public interface ReadFrom<T>{
+		public T read(ResultSet rs, int index) throws SQLException;
+	}
+
+	/**
+	 * Binds a value directly to a parameter of a prepared statement.
+	 * */
+	public interface WriteTo<T>{
+		public void write(PreparedStatement ps, int index, T value) throws SQLException;
+	}
+
+	/*
+	 * The registries are immutable snapshots that are replaced as a whole under the registry lock, so a lookup on the
+	 * hot path is a single volatile read without locking and registering at runtime never blocks running queries.
+	 */
+	private static final Object registryLock = new Object();
+
+	private static volatile Map<String, QueryConstructor> QuerryConstruction = Collections.emptyMap();
 
 	//private static Set<Class<?>> templateTypes = Set.of(int.class, boolean.class, byte.class, short.class, long.class, String.class, Integer.class, Boolean.class, Short.class, Long.class, Byte.class);
 	
-	private static Map<Class<?>, Pair<ConvertFrom, ConvertTo>> typeConverter = new HashMap<>();
+	private static volatile Map<Class<?>, TypeConverter> typeConverter;
+	private static volatile int converterVersion = 0;
+	/**
+	 * The SQL types NULL values of the built in types are bound with, see {@link #bindNull(PreparedStatement, int, Class)}.
+	 * */
+	private static final Map<Class<?>, Integer> NULL_TYPES = Map.ofEntries(
+			Map.entry(String.class, Types.VARCHAR), Map.entry(UUID.class, Types.VARCHAR),
+			Map.entry(Integer.class, Types.INTEGER), Map.entry(Long.class, Types.BIGINT),
+			Map.entry(Short.class, Types.SMALLINT), Map.entry(Byte.class, Types.TINYINT),
+			Map.entry(Boolean.class, Types.BOOLEAN), Map.entry(Double.class, Types.DOUBLE),
+			Map.entry(Float.class, Types.REAL), Map.entry(BigDecimal.class, Types.DECIMAL),
+			Map.entry(byte[].class, Types.VARBINARY), Map.entry(Date.class, Types.DATE),
+			Map.entry(Time.class, Types.TIME), Map.entry(Timestamp.class, Types.TIMESTAMP));
 	
 	
 	private String fullQuery = "";
 	private String commandName = "";
 	private String tableName = "";
 	private List<Pair<String, String>> ValueList = new ArrayList<>();
+	private List<Object> parameterList = new ArrayList<>();
+	/**
+	 * The declared type of every bound parameter, null if it is not known. Only used to bind NULL values with their SQL type.
+	 * */
+	private List<Class<?>> parameterTypes = new ArrayList<>();
+	private boolean bindParameters = false;
+	private Boolean cacheResult = null;
+	private DatabaseTable caller = null;
+	private Class<?> projectionType = null;
+	private int[] projectionGroups = null;
+	private Class<?> valueType = null;
+	private DatabaseType databaseType = null;
 	private DatabaseManager.AsyncCallback callback = null;
 	private DatabaseManager.AsyncSQLExceptionHandle exceptionHandle = null;
-	private static DatabaseManager.AsyncSQLExceptionHandle defaultExceptonHandle = (e) -> e.getSqlException().printStackTrace();
+	private static volatile DatabaseManager.AsyncSQLExceptionHandle defaultExceptonHandle = (e) -> e.getSqlException().printStackTrace();
 
 	static{
-		typeConverter.put(int.class, new Pair<>((o) -> ""+o, (s) -> (int)Integer.valueOf(s)));
-		typeConverter.put(boolean.class, new Pair<>((o) -> Boolean.toString((boolean)o), (s) -> (boolean)Boolean.parseBoolean(s)));
-		typeConverter.put(byte.class, new Pair<>((o) -> Byte.toString((byte)o), (s) -> (byte)Byte.parseByte(s)));
-		typeConverter.put(short.class, new Pair<>((o) -> Short.toString((short)o), (s) -> (short)Short.parseShort(s)));
-		typeConverter.put(long.class, new Pair<>((o) -> Long.toString((long)o), (s) -> (long)Long.parseLong(s)));
-		typeConverter.put(String.class, new Pair<>((o) -> (String)o, (s) -> s));
-		typeConverter.put(Integer.class, new Pair<>((o) -> ((Integer)o).toString(), (s) -> Integer.parseInt(s)));
-		typeConverter.put(Boolean.class, new Pair<>((o) -> ((Boolean)o).toString(), (s) -> Boolean.parseBoolean(s)));
-		typeConverter.put(Short.class, new Pair<>((o) -> ((Short)o).toString(), (s) -> Short.parseShort(s)));
-		typeConverter.put(Long.class, new Pair<>((o) -> ((Long)o).toString(), (s) -> Long.parseLong(s)));
-		typeConverter.put(Byte.class, new Pair<>((o) -> ((Byte)o).toString(), (s) -> Byte.parseByte(s)));
-		typeConverter.put(UUID.class, new Pair<>((o) -> ((UUID)o).toString(), (s) -> UUID.fromString(s)));
+		Map<Class<?>, TypeConverter> converters = new HashMap<>();
+		converters.put(int.class, new TypeConverter((o) -> ""+o, (s) -> (int)Integer.valueOf(s), ResultSet::getInt, (ps, i, v) -> ps.setInt(i, (int)v)));
+		converters.put(boolean.class, new TypeConverter((o) -> Boolean.toString((boolean)o), (s) -> Boolean.parseBoolean(s), ResultSet::getBoolean, (ps, i, v) -> ps.setBoolean(i, (boolean)v)));
+		converters.put(byte.class, new TypeConverter((o) -> Byte.toString((byte)o), (s) -> Byte.parseByte(s), ResultSet::getByte, (ps, i, v) -> ps.setByte(i, (byte)v)));
+		converters.put(short.class, new TypeConverter((o) -> Short.toString((short)o), (s) -> Short.parseShort(s), ResultSet::getShort, (ps, i, v) -> ps.setShort(i, (short)v)));
+		converters.put(long.class, new TypeConverter((o) -> Long.toString((long)o), (s) -> Long.parseLong(s), ResultSet::getLong, (ps, i, v) -> ps.setLong(i, (long)v)));
+		converters.put(String.class, new TypeConverter((o) -> (String)o, (s) -> s, ResultSet::getString, (ps, i, v) -> ps.setString(i, v)));
+		converters.put(Integer.class, new TypeConverter((o) -> ((Integer)o).toString(), (s) -> Integer.parseInt(s), (rs, i) -> {
+			int v = rs.getInt(i);
+			return rs.wasNull() ? null : v;
+		}, (ps, i, v) -> ps.setInt(i, v)));
+		converters.put(Boolean.class, new TypeConverter((o) -> ((Boolean)o).toString(), (s) -> Boolean.parseBoolean(s), (rs, i) -> {
+			boolean v = rs.getBoolean(i);
+			return rs.wasNull() ? null : v;
+		}, (ps, i, v) -> ps.setBoolean(i, v)));
+		converters.put(Short.class, new TypeConverter((o) -> ((Short)o).toString(), (s) -> Short.parseShort(s), (rs, i) -> {
+			short v = rs.getShort(i);
+			return rs.wasNull() ? null : v;
+		}, (ps, i, v) -> ps.setShort(i, v)));
+		converters.put(Long.class, new TypeConverter((o) -> ((Long)o).toString(), (s) -> Long.parseLong(s), (rs, i) -> {
+			long v = rs.getLong(i);
+			return rs.wasNull() ? null : v;
+		}, (ps, i, v) -> ps.setLong(i, v)));
+		converters.put(Byte.class, new TypeConverter((o) -> ((Byte)o).toString(), (s) -> Byte.parseByte(s), (rs, i) -> {
+			byte v = rs.getByte(i);
+			return rs.wasNull() ? null : v;
+		}, (ps, i, v) -> ps.setByte(i, v)));
+		converters.put(UUID.class, new TypeConverter((o) -> ((UUID)o).toString(), (s) -> UUID.fromString(s), TypeConverter::readUUID, (ps, i, v) -> ps.setString(i, v.toString())));
+		typeConverter = Collections.unmodifiableMap(converters);
+		putQueryConstructor("UPSERT", new QueryTemplate(QueryObject::constructUpsert));
 	}
 
 	public QueryObject(String commandName, String tableName) {
@@ -93,8 +158,35 @@ public class QueryObject {
 
 
     public static void registerConverter(Class<?> clazz, ConvertFrom from, ConvertTo to){
-        typeConverter.put(clazz, new Pair<>(from, to));
+        registerConverter(clazz, from, to, null, null);
     }
+
+	/**
+	 * Registers a converter that also reads and writes the type directly through JDBC.<br>
+	 * The reader and writer are used for result sets and bind parameters, the string converters only for inlined queries.
+	 * If the reader or writer is null the string form is read or written instead.
+	 * */
+	public static <T> void registerConverter(Class<T> clazz, ConvertFrom from, ConvertTo to, ReadFrom<T> reader, WriteTo<? super T> writer){
+		TypeConverter converter = new TypeConverter(from, to, reader, writer);
+		synchronized(registryLock) {
+			Map<Class<?>, TypeConverter> converters = new HashMap<>(typeConverter);
+			converters.put(clazz, converter);
+			typeConverter = Collections.unmodifiableMap(converters);
+			++converterVersion;
+		}
+	}
+
+	static int getConverterVersion() {
+		return converterVersion;
+	}
+
+	static boolean hasConverter(Class<?> clazz) {
+		return typeConverter.containsKey(clazz);
+	}
+
+	static TypeConverter getConverter(Class<?> clazz) {
+		return typeConverter.get(clazz);
+	}
 	
 	/**
 	 * Will construct a value list from the given Pair list.<br>
@@ -104,18 +196,17 @@ public class QueryObject {
 	 * @param args A pair list like the one from QueryObject.getValueList() or QueryObject.getArgumentList()
 	 * */
 	public static String constructValueList(List<Pair<String,String>> args) {
-		String out = "(%s) VALUES ('%s')";
-		String nextColumn = ",%s";
-		String nextValue = "','%s";
-		int valueCount = 0;
-		for(Pair<String, String> p : args) {
-			if(++valueCount > args.size() -1) nextColumn = nextValue = "";
-			out = String.format(out, p.getFirst() + nextColumn, p.getSecond() + nextValue);
+		StringBuilder columns = new StringBuilder("(");
+		StringBuilder values = new StringBuilder(") VALUES ('");
+		for(int i = 0; i < args.size(); ++i) {
+			if(i > 0) {
+				columns.append(',');
+				values.append("','");
+			}
+			columns.append(args.get(i).getFirst());
+			values.append(args.get(i).getSecond());
 		}
-		
-		if(valueCount == 0) out = String.format(out, "", "");
-		
-		return out;
+		return columns.append(values).append("')").toString();
 	}
 	
 	/**
@@ -138,17 +229,114 @@ public class QueryObject {
 	 * @param concatinator A string that comes before the next pair in the list.
 	 * */
 	public static String constructKWargList(List<Pair<String,String>> args, String concatinator) {
-		String out = "%s='%s'";
-		String next = concatinator + "%s='%s'";
-		int valueCount = 0;
+		if(args.isEmpty()) return "=''";
+		StringBuilder out = new StringBuilder();
 		for(Pair<String, String> p : args) {
-			if(++valueCount > args.size() -1) next = "";
-			out = String.format(out, p.getFirst(), p.getSecond()) + next;
+			if(out.length() > 0) out.append(concatinator);
+			out.append(p.getFirst()).append("='").append(p.getSecond()).append('\'');
 		}
-		
-		if(valueCount == 0) out = String.format(out, "", "");
-		
-		return out;
+		return out.toString();
+	}
+	
+	/**
+	 * Will construct a value list with placeholders from the given Pair list.<br>
+	 * The output will be of the form:<br>
+	 * <pre>	(column_name1, column_name2, ...) VALUES (?, ?, ...)<pre><br>
+	 * Use it together with {@link #setBindParameters(boolean)} so the values are bound to the placeholders.
+	 * 
+	 * @param args A pair list like the one from QueryObject.getValueList() or QueryObject.getArgumentList()
+	 * */
+	public static String constructValuePlaceholderList(List<Pair<String,String>> args) {
+		StringBuilder columns = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		for(Pair<String, String> p : args) {
+			if(columns.length() > 0) {
+				columns.append(',');
+				values.append(',');
+			}
+			columns.append(p.getFirst());
+			values.append('?');
+		}
+		return "(" + columns + ") VALUES (" + values + ")";
+	}
+	
+	/**
+	 * Will construct a key word list with placeholders from the given Pair list.<br>
+	 * The output will be of the form:<br>
+	 * <pre>	column_name1=?,column_name2=?,...</pre><br>
+	 * 
+	 * @param args A pair list like the one from QueryObject.getValueList() or QueryObject.getArgumentList()
+	 * */
+	public static String constructKWargPlaceholderList(List<Pair<String,String>> args) {
+		return constructKWargPlaceholderList(args, ",");
+	}
+	
+	/**
+	 * Will construct a key word list with placeholders from the given Pair list.<br>
+	 * The output will be of the form:<br>
+	 * <pre>	column_name1=?{concatinator}column_name2=?{concatinator}...</pre><br>
+	 * 
+	 * @param args A pair list like the one from QueryObject.getValueList() or QueryObject.getArgumentList()
+	 * @param concatinator A string that comes before the next pair in the list.
+	 * */
+	public static String constructKWargPlaceholderList(List<Pair<String,String>> args, String concatinator) {
+		StringBuilder out = new StringBuilder();
+		for(Pair<String, String> p : args) {
+			if(out.length() > 0) out.append(concatinator);
+			out.append(p.getFirst()).append("=?");
+		}
+		return out.toString();
+	}
+	
+	/**
+	 * Constructs the SQL of the built in UPSERT command, an INSERT that updates the existing row if one with the same key exists.<br>
+	 * The key columns are the columns of the value list marked with <code>@DatabaseField(key = true)</code> in the class
+	 * the values were added from with {@link #addValues(Object, int...)}. The output will be of the form:<br>
+	 * <pre>	INSERT INTO table (key, column1, ...) VALUES (...) AS new ON DUPLICATE KEY UPDATE column1=new.column1,...</pre>
+	 * for MySQL, the row alias needs MySQL 8.0.19 or later and replaces the <code>VALUES(column)</code> function deprecated in 8.0.20, and
+	 * <pre>	INSERT INTO table (key, column1, ...) VALUES (...) ON CONFLICT(key) DO UPDATE SET column1=excluded.column1,...</pre>
+	 * for SQLite. The values are placeholders in bind parameter mode. MySQL reports 1 affected row for an insert and 2 for an update.
+	 * 
+	 * @exception IllegalArgumentException Is thrown if the value list has no key column or the query was not given to a {@link DatabaseManager} yet.
+	 * */
+	public static String constructUpsert(QueryObject q) {
+		if(q.databaseType == null)
+			throw new IllegalArgumentException("UPSERT needs the database type, execute the query through a DatabaseManager!");
+		List<EntityMapper.Column> keys = q.valueType != null ? EntityMapper.of(q.valueType).getKeyColumns() : Collections.emptyList();
+		List<String> keyColumns = new ArrayList<>();
+		List<String> updateColumns = new ArrayList<>();
+		for(Pair<String, String> p : q.ValueList) {
+			boolean key = false;
+			for(EntityMapper.Column c : keys) {
+				if(c.getColumnName().equals(p.getFirst())) key = true;
+			}
+			(key ? keyColumns : updateColumns).add(p.getFirst());
+		}
+		if(keyColumns.isEmpty())
+			throw new IllegalArgumentException("UPSERT needs a column marked with @DatabaseField(key = true) in the value list of table: " + q.tableName);
+
+		StringBuilder sql = new StringBuilder("INSERT INTO ").append(q.tableName).append(' ');
+		sql.append(q.bindParameters ? constructValuePlaceholderList(q.ValueList) : constructValueList(q.ValueList));
+		if(q.databaseType == DatabaseType.MYSQL) {
+			sql.append(" AS new ON DUPLICATE KEY UPDATE ");
+			if(updateColumns.isEmpty()) {
+				sql.append(keyColumns.get(0)).append('=').append(keyColumns.get(0));
+			}
+			for(int i = 0; i < updateColumns.size(); ++i) {
+				if(i > 0) sql.append(',');
+				sql.append(updateColumns.get(i)).append("=new.").append(updateColumns.get(i));
+			}
+		}else {
+			sql.append(" ON CONFLICT(").append(String.join(",", keyColumns)).append(')');
+			if(updateColumns.isEmpty()) {
+				sql.append(" DO NOTHING");
+			}
+			for(int i = 0; i < updateColumns.size(); ++i) {
+				sql.append(i > 0 ? "," : " DO UPDATE SET ");
+				sql.append(updateColumns.get(i)).append("=excluded.").append(updateColumns.get(i));
+			}
+		}
+		return sql.toString();
 	}
 	
 	/**
@@ -173,6 +361,22 @@ public class QueryObject {
 	 * */
 	public void addValue(String column, String value) {
 		this.ValueList.add(new Pair<String, String>(column, value));
+		this.parameterList.add(value);
+		this.parameterTypes.add(String.class);
+	}
+	
+	/**
+	 * Adds a typed value to the value list.<br>
+	 * The value is kept as it is for binding and converted with the registered converter for the value list.
+	 * 
+	 * @param column The name of the column the value belongs to.
+	 * @param value The value for the given column name.
+	 * */
+	public void addValue(String column, Object value) {
+		TypeConverter converter = value != null ? typeConverter.get(value.getClass()) : null;
+		this.ValueList.add(new Pair<String, String>(column, converter != null ? converter.getConvertFrom().convert(value) : String.valueOf(value)));
+		this.parameterList.add(value);
+		this.parameterTypes.add(value != null ? value.getClass() : null);
 	}
 	
 	public void addValues(Object o) throws QueryObjectException {
@@ -190,99 +394,36 @@ public class QueryObject {
 	}
 	
 	public void addValues(Object o, int... groups) throws QueryObjectException {
-		Pair<List<Field>, List<Method>> fieldsMethods = getFieldsAndMethods(o, groups);
-		List<Field> fields = fieldsMethods.getFirst();
-		List<Method> methods = fieldsMethods.getSecond();
-		
-		for(Field f : fields) {
-			String columnName = f.getAnnotation(DatabaseField.class).columnName();
-			if(columnName.equals("") || columnName == null) columnName = f.getName();
-			this.ValueList.add(new Pair<String,String>(columnName, typeConverter.get(f.getType()).getFirst().convert(getValue(f, o))));
-		}
-		
-		for(Method m : methods) {
-			String columnName = m.getAnnotation(DatabaseField.class).columnName();
-			if(columnName.equals("") || columnName == null) columnName = m.getName();
-			this.ValueList.add(new Pair<String, String>(columnName, typeConverter.get(m.getReturnType()).getFirst().convert(targetInvocationWrapper(o, m))));
-		}
-	}
-	
-	private Pair<List<Field>, List<Method>> getFieldsAndMethods(Object o, int... groups) throws QueryObjectException{
-		Set<Integer> groupsOfField = new HashSet<>();
-		for(int i : groups) groupsOfField.add(i);
-		List<Field> fields = new ArrayList<>();
-		List<Method> methods = new ArrayList<>();
-		if(!o.getClass().isAnnotationPresent(DatabaseObject.class)) {
+		EntityMapper<?> mapper = EntityMapper.of(o.getClass());
+		if(!mapper.isDatabaseObject()) {
 			throw new QueryObjectException("Missing DatabaseObject annotation for object: " + o.getClass().getName());
 		}
-
-		for(Field f : o.getClass().getDeclaredFields()) {
-			f.setAccessible(true);
-			if(f.isAnnotationPresent(DatabaseField.class)) {
-				if(typeConverter.containsKey(f.getType())) {
-					if(DatabaseField.util.inSameGroup(groupsOfField, f.getAnnotation(DatabaseField.class).groups())) {
-						fields.add(f);
-					}
-				}else {
-					throw new QueryObjectException("Can not read field of type: " + f.getType().getSimpleName() + " as argument type in: " + o.getClass().getSimpleName());
-				}
-			}
+		if(mapper.getWriteError() != null) {
+			throw new QueryObjectException(mapper.getWriteError());
 		}
-
-		for(Method m : o.getClass().getDeclaredMethods()) {
-			m.setAccessible(true);
-			if(m.isAnnotationPresent(DatabaseField.class)) {
-				if(DatabaseField.util.inSameGroup(groupsOfField, m.getAnnotation(DatabaseField.class).groups())) {
-					if(m.getParameterCount() <= 0) {
-						if(typeConverter.containsKey(m.getReturnType())) {
-							methods.add(m);
-						}else {
-							throw new QueryObjectException("QueryObject error for: " + o.getClass().getSimpleName() + ".\nFunctions with @DatabaseFieldType can not have return type: " + m.getReturnType().getSimpleName());
-						}
-					}else {
-						throw new QueryObjectException("Can not read function with @DatabaseFieldType annotation because it has to many argumetns. Functions with the @DatabaseFieldType annotation can not have any arguments");
-					}
-				}
-			}
+		
+		List<EntityMapper.Column> columns = mapper.getColumns(groups);
+		for(EntityMapper.Column c : columns) {
+			String error = c.getWriteError(o.getClass());
+			if(error != null) throw new QueryObjectException(error);
 		}
-
-		return new Pair<>(fields, methods);
+		
+		for(EntityMapper.Column c : columns) {
+			Object value = c.get(o);
+			this.ValueList.add(new Pair<String,String>(c.getColumnName(), c.getConverter().convert(value)));
+			this.parameterList.add(value);
+			this.parameterTypes.add(c.getType());
+		}
+		this.valueType = o.getClass();
 	}
 
 	public static <T> List<T> getFromResultSet(Class<T> returnType, ResultSet rs) throws QueryObjectException{
-		Constructor<?> constructor = getDBConstructorForClass(returnType);
-		if(constructor == null) throw new QueryObjectException("No suitable constructor found for class: " + returnType.getName());
-		String[] fieldNames = constructor.getAnnotation(DatabaseConstructor.class).columnName();
-		Class<?>[] typs = constructor.getParameterTypes();
-		Object[] args = new Object[typs.length];
+		ConstructorRowReader<T> reader = new ConstructorRowReader<>(returnType);
 		List<T> returnlist = new ArrayList<>();
 
 		try {
 			while(rs.next()){
-				int c = 0;
-				for(String fn : fieldNames){
-					String res;
-					try {
-						res = rs.getString(fn);
-					} catch (SQLException e) {
-						throw new QueryObjectException("Could not get field: " + fn + " from result set!");
-					}
-					if(res != null){
-						args[c] = typeConverter.get(typs[c]).getSecond().convert(res);
-					}
-					++c;
-				}
-				try {
-					returnlist.add(safeCast(constructor.newInstance(args), returnType));
-				} catch (InstantiationException e) {
-					throw new QueryObjectException("Could not instantiate object!");
-				} catch (IllegalAccessException e) {
-					throw new QueryObjectException("Could not access object constructor!");
-				} catch (IllegalArgumentException e) {
-					throw new QueryObjectException("Illegal arguments passed to constructor!");
-				} catch (InvocationTargetException e) {
-					throw new QueryObjectException("Construct throw an error: " + e.getTargetException().getMessage());
-				}
+				returnlist.add(reader.read(rs));
 			}
 		} catch (SQLException e) {
 			throw new QueryObjectException("Exception in result set!");
@@ -291,13 +432,58 @@ public class QueryObject {
 		return returnlist;
 	}
 
-	private static Constructor<?> getDBConstructorForClass(Class<?> clazz){
-		for(Constructor<?> c : clazz.getConstructors()){
-			if(c.isAnnotationPresent(DatabaseConstructor.class)){
-				return c;
+	/**
+	 * Returns a stream that maps the rows of the result lazily with the constructor annotated with {@link DatabaseConstructor}.<br>
+	 * The result is closed once the stream is exhausted or closed, so use the stream with try-with-resources.
+	 * 
+	 * @exception com.simpledb.exceptions.DatabaseStreamException Is thrown while consuming the stream if a row can not be read.
+	 * */
+	public static <T> Stream<T> streamFromResult(Class<T> returnType, QueryResult result) throws QueryObjectException{
+		ConstructorRowReader<T> reader = new ConstructorRowReader<>(returnType);
+		return ResultStream.of(result, reader::read);
+	}
+
+	/**
+	 * Maps rows to objects with the constructor annotated with {@link DatabaseConstructor}.<br>
+	 * The column indexes are resolved from the result set metadata on the first row and reused for all following rows.
+	 * */
+	private static class ConstructorRowReader<T> {
+
+		private final Class<T> returnType;
+		private final EntityMapper<T> mapper;
+		private final String[] fieldNames;
+		private final TypeConverter[] converters;
+		private final Object[] args;
+		private int[] columnIndexes = null;
+
+		ConstructorRowReader(Class<T> returnType) throws QueryObjectException {
+			this.returnType = returnType;
+			this.mapper = EntityMapper.of(returnType);
+			Constructor<?> constructor = mapper.getDatabaseConstructor();
+			if(constructor == null) throw new QueryObjectException("No suitable constructor found for class: " + returnType.getName());
+			this.fieldNames = constructor.getAnnotation(DatabaseConstructor.class).columnName();
+			Class<?>[] typs = constructor.getParameterTypes();
+			this.converters = new TypeConverter[fieldNames.length];
+			for(int c = 0; c < fieldNames.length; ++c) {
+				converters[c] = typeConverter.get(typs[c]);
+				if(converters[c] == null) throw new QueryObjectException("No converter registered for type: " + typs[c].getSimpleName() + " in: " + returnType.getSimpleName());
 			}
+			this.args = new Object[typs.length];
 		}
-		return null;
+
+		T read(ResultSet rs) throws QueryObjectException, SQLException {
+			if(columnIndexes == null) {
+				columnIndexes = ColumnPlan.indexes(rs, fieldNames);
+				for(int c = 0; c < fieldNames.length; ++c) {
+					if(columnIndexes[c] == 0) throw new QueryObjectException("Could not get field: " + fieldNames[c] + " from result set!");
+				}
+			}
+			for(int c = 0; c < columnIndexes.length; ++c){
+				args[c] = converters[c].read(rs, columnIndexes[c]);
+			}
+			return safeCast(mapper.newInstance(args), returnType);
+		}
+
 	}
 
 	public Object targetInvocationWrapper(Object target, Method method) throws QueryObjectException{
@@ -312,14 +498,6 @@ public class QueryObject {
 		}
 	}
 	
-	private Object getValue(Field f, Object o) throws QueryObjectException {
-		try {
-			return f.get(o);
-		} catch (IllegalArgumentException | IllegalAccessException e) {
-			throw new QueryObjectException("Could not get value form field: " + f.getName());
-		}
-	}
-
 	public void setAsyncCallback(DatabaseManager.AsyncCallback callback){
 		this.callback = callback;		
 	}
@@ -340,6 +518,10 @@ public class QueryObject {
 		return this.exceptionHandle != null ? this.exceptionHandle : QueryObject.defaultExceptonHandle;
 	}
 
+	static DatabaseManager.AsyncSQLExceptionHandle getDefaultExceptionHandle(){
+		return QueryObject.defaultExceptonHandle;
+	}
+
 	public void setDefaultAsyncExceptonHandle(DatabaseManager.AsyncSQLExceptionHandle handle){
 		if(handle == null) throw new IllegalArgumentException("Default handle can not be null!");
 		QueryObject.defaultExceptonHandle = handle;
@@ -363,10 +545,165 @@ public class QueryObject {
 		return this.ValueList;
 	}
 	
+	/**
+	 * Returns the typed values in the same order as the value list.<br>
+	 * These are the values that get bound to the placeholders when bind parameters are enabled.
+	 * */
+	public List<Object> getParameterList(){
+		return this.parameterList;
+	}
+	
 	public String getTableName() {
 		return this.tableName;
 	}
 	
+	public String getCommandName() {
+		return this.commandName;
+	}
+	
+	/**
+	 * Enables or disables the bind parameter mode.<br>
+	 * In bind parameter mode the query constructor emits <code>?</code> placeholders
+	 * (see {@link #constructValuePlaceholderList(List)} and {@link #constructKWargPlaceholderList(List, String)})
+	 * and the values from {@link #getParameterList()} are bound to them in order before the statement is executed.
+	 * */
+	public void setBindParameters(boolean bindParameters) {
+		this.bindParameters = bindParameters;
+	}
+	
+	public boolean usesBindParameters() {
+		return this.bindParameters;
+	}
+	
+	/**
+	 * Opts this query in or out of the result cache of {@link DatabaseManager#getData(QueryObject)}.<br>
+	 * Queries that never call this follow the default given to {@link DatabaseManager#enableResultCache(long, long, boolean)}.
+	 * */
+	public void setCacheResult(boolean cacheResult) {
+		this.cacheResult = cacheResult;
+	}
+	
+	/**
+	 * Returns if the result of this query may be cached or null if the query follows the default of the cache.
+	 * */
+	Boolean getCacheResult() {
+		return this.cacheResult;
+	}
+	
+	/**
+	 * Limits the columns a SELECT reads to the fields of the class in the given groups.<br>
+	 * Query constructors that build their column list with {@link #constructColumnList(QueryObject)} then only select those columns,
+	 * {@link DatabaseTable} sets the projection of the objects it reads itself. Has to be set before the query is constructed.
+	 * */
+	public void setProjection(Class<?> type, int... groups) {
+		this.projectionType = type;
+		this.projectionGroups = groups.clone();
+	}
+	
+	public boolean hasProjection() {
+		return this.projectionType != null;
+	}
+	
+	/**
+	 * Returns a copy of this query with the projection set or this query if it already has one.<br>
+	 * {@link DatabaseTable} projects the copy, so the query of the caller can be reused to read another class.
+	 * */
+	QueryObject withProjection(Class<?> type, int... groups) {
+		if(hasProjection()) return this;
+		QueryObject copy = new QueryObject(this.commandName, this.tableName);
+		copy.fullQuery = this.fullQuery;
+		copy.ValueList = new ArrayList<>(this.ValueList);
+		copy.parameterList = new ArrayList<>(this.parameterList);
+		copy.parameterTypes = new ArrayList<>(this.parameterTypes);
+		copy.bindParameters = this.bindParameters;
+		copy.cacheResult = this.cacheResult;
+		copy.caller = this.caller;
+		copy.valueType = this.valueType;
+		copy.databaseType = this.databaseType;
+		copy.callback = this.callback;
+		copy.exceptionHandle = this.exceptionHandle;
+		copy.setProjection(type, groups);
+		return copy;
+	}
+	
+	/**
+	 * Returns the column list for a SELECT of this query, the field columns of the projection or <code>*</code> without one.<br>
+	 * The output will be of the form:<br>
+	 * <pre>	column_name1, column_name2, ...</pre><br>
+	 * */
+	public static String constructColumnList(QueryObject query) {
+		if(query.projectionType == null) return "*";
+		String columns = EntityMapper.of(query.projectionType).getColumnList(query.projectionGroups);
+		return columns != null ? columns : "*";
+	}
+	
+	DatabaseType getDatabaseType() {
+		return this.databaseType;
+	}
+
+	/**
+	 * Returns the class the values were added from with {@link #addValues(Object, int...)} or null.
+	 * */
+	Class<?> getValueType() {
+		return this.valueType;
+	}
+	
+	/**
+	 * Sets the SQL dialect constructors like UPSERT emit, done by the {@link DatabaseManager} the query is given to.
+	 * */
+	void setDatabaseType(DatabaseType databaseType) {
+		this.databaseType = databaseType;
+	}
+	
+	/**
+	 * Returns the table that executed this query or null if it was executed directly through the {@link DatabaseManager}.
+	 * */
+	public DatabaseTable getCaller() {
+		return this.caller;
+	}
+	
+	void setCaller(DatabaseTable caller) {
+		this.caller = caller;
+	}
+	
+	/**
+	 * Binds the parameter list to the placeholders of the given statement if bind parameters are enabled.
+	 * */
+	protected void bindParameters(PreparedStatement ps) throws SQLException {
+		if(!this.bindParameters) return;
+		//Values added through getParameterList() have no declared type, then no type is trusted to line up with its value.
+		boolean typed = this.parameterTypes.size() == this.parameterList.size();
+		for(int i = 0; i < this.parameterList.size(); ++i) {
+			bindValue(ps, i + 1, this.parameterList.get(i), typed ? this.parameterTypes.get(i) : null);
+		}
+	}
+	
+	private static void bindValue(PreparedStatement ps, int index, Object value, Class<?> declaredType) throws SQLException {
+		if(value == null) {
+			bindNull(ps, index, declaredType);
+			return;
+		}
+		TypeConverter converter = typeConverter.get(value.getClass());
+		if(converter != null) {
+			converter.write(ps, index, value);
+		} else {
+			ps.setObject(index, value);
+		}
+	}
+	
+	/**
+	 * Binds NULL with the SQL type of the declared Java type of the value, NULL of other types is left to the driver.<br>
+	 * The type is not asked from the parameter metadata, which costs MySQL a round trip for every statement.
+	 * */
+	private static void bindNull(PreparedStatement ps, int index, Class<?> declaredType) throws SQLException {
+		Integer type = declaredType != null ? NULL_TYPES.get(declaredType) : null;
+		if(type != null) {
+			ps.setNull(index, type);
+		}else {
+			ps.setObject(index, null);
+		}
+	}
+	
 	/**
 	 * This factory function will construct a QueryObject containing the given query.
 	 * */
@@ -385,7 +722,28 @@ public class QueryObject {
 	 * @param constructor A constructor function that gives a construction rule for all querys of that name.
 	 * */
 	public static void addQueryConstructor(String commandName, QueryConstructor constructor) {
-		QueryObject.QuerryConstruction.put(commandName, constructor);
+		putQueryConstructor(commandName, constructor);
+	}
+	
+	/**
+	 * Adds a query constructor whose SQL only depends on the command, the table name and the columns of the value list.<br>
+	 * Queries in bind parameter mode build their SQL only once per table and column set, later queries reuse the cached text
+	 * and only bind their values. The constructor must not put values into the SQL, use the placeholder lists like
+	 * {@link #constructValuePlaceholderList(List)} instead. Queries with inlined values are constructed every time.
+	 * 
+	 * @param commandName The name of the command like SELECT, DELETE, ... the constructor will be registered under.
+	 * @param constructor A constructor function that gives a construction rule for all querys of that name.
+	 * */
+	public static void addQueryTemplate(String commandName, QueryConstructor constructor) {
+		putQueryConstructor(commandName, new QueryTemplate(constructor));
+	}
+	
+	private static void putQueryConstructor(String commandName, QueryConstructor constructor) {
+		synchronized(registryLock) {
+			Map<String, QueryConstructor> constructors = new HashMap<>(QuerryConstruction);
+			constructors.put(commandName, constructor);
+			QuerryConstruction = Collections.unmodifiableMap(constructors);
+		}
 	}
 
 	private static <T> T safeCast(Object o, Class<T> clazz) throws QueryObjectException {
@@ -394,23 +752,3 @@ public class QueryObject {
 	    return clazz.isInstance(o) ? clazz.cast(o) : null;
 	}
 }
-
-class Pair<K, V>{
-	
-	private K first;
-	private V second;
-	
-	public Pair(K first, V second) {
-		this.first = first;
-		this.second = second;
-	}
-	
-	public K getFirst() {
-		return first;
-	}
-	
-	public V getSecond() {
-		return second;
-	}
-	
-}
@@ -0,0 +1,79 @@
+package com.simpledb.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The result of a query that keeps its pooled connection until it is closed.<br>
+ * Use it with try-with-resources, closing it hands the statement back to the statement cache and the connection back to the pool.
+ * A result read inside a transaction is closed when the transaction ends.
+ * */
+public class QueryResult implements AutoCloseable {
+
+	private final QueryObject query;
+	private final String sql;
+	private PooledConnection connection;
+	private PreparedStatement statement;
+	private ResultSet resultSet;
+	private final StatementTimer timer;
+	private long rows = -1;
+
+	QueryResult(QueryObject query, String sql, PooledConnection connection, PreparedStatement statement, ResultSet resultSet, StatementTimer timer) {
+		this.query = query;
+		this.sql = sql;
+		this.connection = connection;
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.timer = timer;
+	}
+
+	public QueryObject getQuery() {
+		return query;
+	}
+
+	public ResultSet getResultSet() {
+		return resultSet;
+	}
+
+	/**
+	 * Moves the cursor to the next row of the result set.<br>
+	 * Statement listeners get the number of rows read with this method once the result is closed,
+	 * rows read from {@link #getResultSet()} directly are not counted.
+	 * */
+	public boolean next() throws SQLException {
+		if(resultSet == null) throw new SQLException("The result is closed!");
+		boolean hasNext = resultSet.next();
+		if(rows < 0) rows = 0;
+		if(hasNext) ++rows;
+		return hasNext;
+	}
+
+	boolean isClosed() {
+		return connection == null;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		if(connection == null) return;
+		try {
+			resultSet.close();
+		} finally {
+			PooledConnection pc = connection;
+			connection = null;
+			try {
+				if(sql != null) {
+					pc.returnStatement(sql, statement);
+				} else {
+					statement.close();
+				}
+			} finally {
+				pc.release();
+				statement = null;
+				resultSet = null;
+				timer.finish(rows, null);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.simpledb.database;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A query constructor whose SQL only depends on the command, the table, the projection, the dialect and the columns of the value list
+ * together with the class the values were read from, which for example decides the key columns of an UPSERT.<br>
+ * For queries in bind parameter mode the SQL is built once per table and column set and reused by every later query,
+ * the values are only bound. Queries with inlined values are built every time.
+ * */
+class QueryTemplate implements QueryConstructor {
+
+	/**
+	 * Upper bound of compiled statements per template, so ad hoc column sets can not grow the cache without limit.
+	 * */
+	static final int MAX_COMPILED = 1024;
+
+	private static final class Key {
+		private final String table;
+		private final String projection;
+		private final DatabaseType databaseType;
+		private final Class<?> valueType;
+		private final String[] columns;
+		private final int hash;
+
+		private Key(String table, String projection, DatabaseType databaseType, Class<?> valueType, List<Pair<String, String>> values) {
+			this.table = table;
+			this.projection = projection;
+			this.databaseType = databaseType;
+			this.valueType = valueType;
+			this.columns = new String[values.size()];
+			int h = ((table == null ? 0 : table.hashCode()) * 31 + projection.hashCode()) * 31 + (databaseType == null ? 0 : databaseType.ordinal() + 1);
+			h = 31 * h + (valueType == null ? 0 : valueType.hashCode());
+			for(int i = 0; i < columns.length; ++i) {
+				columns[i] = values.get(i).getFirst();
+				h = 31 * h + (columns[i] == null ? 0 : columns[i].hashCode());
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) return false;
+			Key k = (Key)o;
+			return hash == k.hash && (table == null ? k.table == null : table.equals(k.table)) && projection.equals(k.projection)
+					&& databaseType == k.databaseType && valueType == k.valueType && Arrays.equals(columns, k.columns);
+		}
+	}
+
+	private final QueryConstructor constructor;
+	private final ConcurrentHashMap<Key, String> compiled = new ConcurrentHashMap<>();
+
+	QueryTemplate(QueryConstructor constructor) {
+		this.constructor = constructor;
+	}
+
+	@Override
+	public String construct(QueryObject q) {
+		if(!q.usesBindParameters()) return constructor.construct(q);
+		Key key = new Key(q.getTableName(), QueryObject.constructColumnList(q), q.getDatabaseType(), q.getValueType(), q.getValueList());
+		String sql = compiled.get(key);
+		if(sql == null) {
+			sql = constructor.construct(q);
+			if(compiled.size() < MAX_COMPILED) compiled.putIfAbsent(key, sql);
+		}
+		return sql;
+	}
+
+}
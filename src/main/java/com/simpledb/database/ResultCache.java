@@ -0,0 +1,209 @@
+package com.simpledb.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+
+/**
+ * A least recently used cache of detached query results for {@link DatabaseManager#getData(QueryObject)}.<br>
+ * Results are kept as {@link CachedRowSet}s and every hit hands out its own copy, so callers can move the cursor and close it freely.
+ * The cache is bounded by an estimate of the memory the rows take, entries expire after the time to live and are dropped
+ * as soon as one of the tables they were read from is written.
+ * */
+class ResultCache {
+
+	private static final class Entry {
+		private final CachedRowSet rows;
+		private final Set<String> tables;
+		private final long bytes;
+		private final long expires;
+
+		private Entry(CachedRowSet rows, Set<String> tables, long bytes, long expires) {
+			this.rows = rows;
+			this.tables = tables;
+			this.bytes = bytes;
+			this.expires = expires;
+		}
+	}
+
+	private final long maxBytes;
+	private final long ttl;
+	private final boolean cacheByDefault;
+	private final RowSetFactory factory;
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Set<Object>> dependents = new HashMap<>();
+	private final CacheStats stats = new CacheStats();
+	private long bytes = 0;
+	private long generation = 0;
+
+	ResultCache(long maxBytes, long ttlMillis, boolean cacheByDefault) throws SQLException {
+		this.maxBytes = maxBytes;
+		this.ttl = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.cacheByDefault = cacheByDefault;
+		this.factory = RowSetProvider.newFactory();
+	}
+
+	static Object key(QueryObject query) {
+		return Arrays.asList(query.getQuery(), new ArrayList<>(query.getParameterList()));
+	}
+
+	boolean isCached(QueryObject query) {
+		Boolean cacheResult = query.getCacheResult();
+		return cacheResult != null ? cacheResult : cacheByDefault;
+	}
+
+	CacheStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Returns the estimated number of bytes held by the cache.
+	 * */
+	synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns a copy of the cached result or null if there is none or it expired.
+	 * */
+	CachedRowSet get(Object key) throws SQLException {
+		ResultSet shared;
+		synchronized(this) {
+			Entry e = entries.get(key);
+			if(e != null && e.expires - System.nanoTime() < 0) {
+				remove(key);
+				e = null;
+			}
+			if(e == null) {
+				stats.miss();
+				return null;
+			}
+			stats.hit();
+			shared = e.rows.createShared();
+		}
+		return copy(shared);
+	}
+
+	/**
+	 * Returns the generation that has to be passed to {@link #put(Object, String, ResultSet, long)}.<br>
+	 * Read it before the query runs, so a result read before an invalidation is not stored after it.
+	 * */
+	synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Reads the whole result set into the cache and returns a copy of it for the caller.<br>
+	 * Results larger than the cache are not cached, the caller gets the rows without a copy.
+	 * */
+	CachedRowSet put(Object key, String sql, ResultSet rs, long generation) throws SQLException {
+		CachedRowSet rows = factory.createCachedRowSet();
+		rows.populate(rs);
+		long size = estimateSize(rows, maxBytes);
+		rows.beforeFirst();
+		if(size > maxBytes) return rows;
+		ResultSet shared = rows.createShared();
+		Set<String> tables = SqlTables.readTables(sql);
+		synchronized(this) {
+			if(generation == this.generation) {
+				remove(key);
+				entries.put(key, new Entry(rows, tables, size, System.nanoTime() + ttl));
+				for(String table : tables) dependents.computeIfAbsent(table, t -> new HashSet<>()).add(key);
+				bytes += size;
+				evict();
+			}
+		}
+		return copy(shared);
+	}
+
+	/**
+	 * Drops all results that were read from the table.
+	 * */
+	synchronized void invalidate(String table) {
+		++generation;
+		Set<Object> keys = dependents.remove(table);
+		if(keys == null || keys.isEmpty()) return;
+		for(Object key : keys) remove(key);
+		stats.invalidation();
+	}
+
+	synchronized void invalidateAll() {
+		++generation;
+		if(entries.isEmpty()) return;
+		entries.clear();
+		dependents.clear();
+		bytes = 0;
+		stats.invalidation();
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+		while(bytes > maxBytes && it.hasNext()) {
+			Map.Entry<Object, Entry> eldest = it.next();
+			it.remove();
+			unlink(eldest.getKey(), eldest.getValue());
+			stats.eviction();
+		}
+	}
+
+	private void remove(Object key) {
+		Entry e = entries.remove(key);
+		if(e != null) unlink(key, e);
+	}
+
+	private void unlink(Object key, Entry e) {
+		bytes -= e.bytes;
+		for(String table : e.tables) {
+			Set<Object> keys = dependents.get(table);
+			if(keys != null) keys.remove(key);
+		}
+	}
+
+	/**
+	 * Copies the rows into a new row set. The shared row set is not closed, closing it would clear the rows of the cache entry.
+	 * */
+	private CachedRowSet copy(ResultSet shared) throws SQLException {
+		CachedRowSet copy = factory.createCachedRowSet();
+		copy.populate(shared);
+		copy.beforeFirst();
+		return copy;
+	}
+
+	/**
+	 * Estimates the memory the rows take. Stops as soon as the estimate passes the limit.
+	 * */
+	private static long estimateSize(CachedRowSet rows, long limit) throws SQLException {
+		int columns = rows.getMetaData().getColumnCount();
+		long size = 64;
+		rows.beforeFirst();
+		while(size <= limit && rows.next()) {
+			size += 32;
+			for(int i = 1; i <= columns; ++i) {
+				Object value = rows.getObject(i);
+				if(value == null) {
+					size += 8;
+				}else if(value instanceof String) {
+					size += 40 + 2L * ((String)value).length();
+				}else if(value instanceof byte[]) {
+					size += 16 + ((byte[])value).length;
+				}else {
+					size += 24;
+				}
+			}
+		}
+		return size;
+	}
+
+}
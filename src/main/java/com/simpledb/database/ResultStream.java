@@ -0,0 +1,65 @@
+package com.simpledb.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.simpledb.exceptions.DatabaseStreamException;
+
+/**
+ * Turns a {@link QueryResult} into a lazily mapped stream.<br>
+ * The rows are mapped one at a time while the stream is consumed. The result is closed when the stream is
+ * exhausted, when mapping a row fails or when the stream itself is closed.
+ * */
+class ResultStream {
+
+	/**
+	 * Maps the current row of a result set to an object.
+	 * */
+	@FunctionalInterface
+	interface RowReader<T> {
+		public T read(ResultSet rs) throws Exception;
+	}
+
+	private ResultStream() {}
+
+	static <T> Stream<T> of(QueryResult result, RowReader<T> reader) {
+		Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+			private boolean done = false;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+				if(done) return false;
+				T next;
+				try {
+					if(!result.next()) {
+						done = true;
+						result.close();
+						return false;
+					}
+					next = reader.read(result.getResultSet());
+				} catch (Exception e) {
+					done = true;
+					closeQuietly(result);
+					throw new DatabaseStreamException("Could not read row from result set: " + e.getMessage(), e);
+				}
+				action.accept(next);
+				return true;
+			}
+		};
+		return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(result));
+	}
+
+	private static void closeQuietly(QueryResult result) {
+		try {
+			result.close();
+		} catch (SQLException e) {
+			//The connection is closed by the pool if it is broken.
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.simpledb.database;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import com.simpledb.exceptions.QueryException;
+
+/**
+ * A statement recorded by the {@link SlowQueryLog}.
+ * */
+public class SlowQuery {
+
+	private final long timestamp;
+	private final String operation;
+	private final String sql;
+	private final String shape;
+	private final List<Object> bindValues;
+	private final String tableName;
+	private final long latencyNanos;
+	private final long rows;
+	private final Throwable error;
+	private volatile List<String> plan = null;
+
+	SlowQuery(StatementEvent event, List<Object> bindValues) {
+		this.timestamp = System.currentTimeMillis();
+		this.operation = event.getOperation();
+		this.shape = event.getShape();
+		this.sql = bindValues != null ? event.getSql() : shape;
+		this.bindValues = bindValues;
+		this.tableName = event.getTable() != null ? event.getTable().getTableName() : null;
+		this.latencyNanos = event.getLatencyNanos();
+		this.rows = event.getRows();
+		this.error = bindValues != null ? event.getError() : redact(event.getError());
+	}
+
+	/**
+	 * Replaces the error with one that only keeps its type and SQL state, the message of a failed statement
+	 * often contains the SQL with inlined values or the values of the conflicting row.
+	 * */
+	private static Throwable redact(Throwable error) {
+		if(error == null) return null;
+		SQLException sqlException = error instanceof QueryException ? ((QueryException)error).getSqlException()
+				: error instanceof SQLException ? (SQLException)error : null;
+		if(sqlException != null) {
+			return new SQLException(sqlException.getClass().getSimpleName() + ": message redacted", sqlException.getSQLState(), sqlException.getErrorCode());
+		}
+		return new RuntimeException(error.getClass().getSimpleName() + ": message redacted");
+	}
+
+	/**
+	 * Returns the time the statement finished in milliseconds since the epoch.
+	 * */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the executed SQL or its shape if bind values are redacted, so no inlined values are kept either.
+	 * */
+	public String getSql() {
+		return sql;
+	}
+
+	public String getShape() {
+		return shape;
+	}
+
+	/**
+	 * Returns the values bound to the statement, an empty list if it had none or null if they were redacted.
+	 * */
+	public List<Object> getBindValues() {
+		return bindValues;
+	}
+
+	public boolean isRedacted() {
+		return bindValues == null;
+	}
+
+	/**
+	 * Returns the name of the {@link DatabaseTable} that executed the statement or null if it was executed through the manager.
+	 * */
+	public String getTableName() {
+		return tableName;
+	}
+
+	public long getLatencyNanos() {
+		return latencyNanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the error of a failed statement. For redacted entries only the type and the SQL state of the error are kept.
+	 * */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Returns the rows of the EXPLAIN output, one string per row with the columns separated by <code>|</code>.<br>
+	 * The plan is captured in the background, it is null until it is available or if it was not captured at all.
+	 * */
+	public List<String> getPlan() {
+		return plan;
+	}
+
+	void setPlan(List<String> plan) {
+		this.plan = Collections.unmodifiableList(plan);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(operation).append(' ').append(latencyNanos / 1000).append("us");
+		if(tableName != null) sb.append(" table=").append(tableName);
+		if(rows >= 0) sb.append(" rows=").append(rows);
+		if(error != null) sb.append(" failed");
+		sb.append(": ").append(sql);
+		if(bindValues != null && !bindValues.isEmpty()) sb.append(' ').append(bindValues);
+		List<String> plan = this.plan;
+		if(plan != null) {
+			for(String row : plan) sb.append("\n\t").append(row);
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.simpledb.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link StatementListener} that keeps the last statements that took longer than a threshold in a ring buffer.<br>
+ * Register it with {@link DatabaseManager#addStatementListener(StatementListener)}. Bind values are redacted unless
+ * {@link #setRedactBindValues(boolean)} turns it off, redacted entries only keep the shape of their SQL.<br>
+ * With {@link #setExplain(boolean)} the plan of every slow SELECT, INSERT, UPDATE and DELETE is captured in the background,
+ * with <code>EXPLAIN</code> on MySQL and <code>EXPLAIN QUERY PLAN</code> on SQLite. The plans are read past the statement listeners,
+ * so they neither show up in the metrics nor in this log.
+ * */
+public class SlowQueryLog implements StatementListener {
+
+	private static final Set<String> EXPLAINABLE = Set.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "REPLACE");
+
+	private final DatabaseManager manager;
+	private final long thresholdNanos;
+	private final Map<String, Long> tableThresholds = new ConcurrentHashMap<>();
+	private final SlowQuery[] entries;
+	private int next = 0;
+	private long recorded = 0;
+	private volatile boolean redactBindValues = true;
+	private volatile boolean explain = false;
+	private ThreadPoolExecutor explainer;
+
+	/**
+	 * @param manager The manager the plans are read with.
+	 * @param thresholdMillis Statements that take at least this long are recorded.
+	 * @param capacity The number of entries kept, older entries are overwritten.
+	 * */
+	public SlowQueryLog(DatabaseManager manager, long thresholdMillis, int capacity) {
+		if(thresholdMillis < 0) throw new IllegalArgumentException("Threshold can not be negative!");
+		if(capacity < 1) throw new IllegalArgumentException("Capacity has to be at least 1!");
+		this.manager = manager;
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		this.entries = new SlowQuery[capacity];
+	}
+
+	/**
+	 * Overrides the threshold for the statements executed through the {@link DatabaseTable} with the given name.
+	 * */
+	public void setThreshold(String tableName, long thresholdMillis) {
+		if(thresholdMillis < 0) throw new IllegalArgumentException("Threshold can not be negative!");
+		this.tableThresholds.put(tableName, TimeUnit.MILLISECONDS.toNanos(thresholdMillis));
+	}
+
+	public void setRedactBindValues(boolean redactBindValues) {
+		this.redactBindValues = redactBindValues;
+	}
+
+	public synchronized void setExplain(boolean explain) {
+		this.explain = explain;
+		if(explain && explainer == null) {
+			explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), r -> {
+				Thread t = new Thread(r, "simpledb-explain");
+				t.setDaemon(true);
+				return t;
+			}, new ThreadPoolExecutor.DiscardPolicy());
+		}else if(!explain && explainer != null) {
+			explainer.shutdown();
+			explainer = null;
+		}
+	}
+
+	@Override
+	public void statementExecuted(StatementEvent event) {
+		if(event.isCached() || event.getSql() == null) return;
+		if(event.getLatencyNanos() < threshold(event)) return;
+		if(event.getSql().regionMatches(true, 0, "EXPLAIN", 0, 7)) return;
+
+		QueryObject query = event.getQuery();
+		List<Object> bindValues = null;
+		if(!redactBindValues) {
+			bindValues = query != null && query.usesBindParameters() ? Collections.unmodifiableList(new ArrayList<>(query.getParameterList())) : List.of();
+		}
+		SlowQuery entry = new SlowQuery(event, bindValues);
+		synchronized(entries) {
+			entries[next] = entry;
+			next = (next + 1) % entries.length;
+			++recorded;
+		}
+		if(explain && query != null) explain(entry, event.getSql(), query);
+	}
+
+	private long threshold(StatementEvent event) {
+		if(!tableThresholds.isEmpty() && event.getTable() != null) {
+			Long threshold = tableThresholds.get(event.getTable().getTableName());
+			if(threshold != null) return threshold;
+		}
+		return thresholdNanos;
+	}
+
+	private void explain(SlowQuery entry, String sql, QueryObject query) {
+		DatabaseType type = manager.getDatabaseType();
+		List<String> words = SqlTables.words(sql, 1);
+		if(type == null || words.isEmpty() || !EXPLAINABLE.contains(words.get(0).toUpperCase(Locale.ROOT))) return;
+
+		QueryObject explainQuery = QueryObject.getQueryObject((type == DatabaseType.SQLITE ? "EXPLAIN QUERY PLAN " : "EXPLAIN ") + sql);
+		if(query.usesBindParameters()) {
+			explainQuery.setBindParameters(true);
+			explainQuery.getParameterList().addAll(query.getParameterList());
+		}
+		ThreadPoolExecutor explainer;
+		synchronized(this) {
+			explainer = this.explainer;
+		}
+		if(explainer == null) return;
+		explainer.execute(() -> {
+			try {
+				entry.setPlan(manager.getRaw(explainQuery, SlowQueryLog::readPlan));
+			} catch (SQLException | RuntimeException e) {
+				entry.setPlan(List.of("Could not explain statement: " + e.getMessage()));
+			}
+		});
+	}
+
+	private static List<String> readPlan(ResultSet rs) throws SQLException {
+		ResultSetMetaData meta = rs.getMetaData();
+		List<String> plan = new ArrayList<>();
+		while(rs.next()) {
+			StringBuilder sb = new StringBuilder();
+			for(int i = 1; i <= meta.getColumnCount(); ++i) {
+				if(i > 1) sb.append(" | ");
+				sb.append(rs.getString(i));
+			}
+			plan.add(sb.toString());
+		}
+		return plan;
+	}
+
+	/**
+	 * Returns the recorded statements, the most recent first.
+	 * */
+	public List<SlowQuery> getEntries() {
+		return getEntries(entries.length);
+	}
+
+	public List<SlowQuery> getEntries(int limit) {
+		synchronized(entries) {
+			int size = (int)Math.min(recorded, entries.length);
+			List<SlowQuery> list = new ArrayList<>(Math.min(limit, size));
+			for(int i = 1; i <= size && list.size() < limit; ++i) {
+				list.add(entries[(next - i + entries.length) % entries.length]);
+			}
+			return list;
+		}
+	}
+
+	/**
+	 * Returns the number of statements recorded since the log was created, including the ones that were overwritten.
+	 * */
+	public long getRecordedCount() {
+		synchronized(entries) {
+			return recorded;
+		}
+	}
+
+	public void clear() {
+		synchronized(entries) {
+			for(int i = 0; i < entries.length; ++i) entries[i] = null;
+			next = 0;
+			recorded = 0;
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.simpledb.database;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds the tables a SQL statement reads from or writes to, so caches of those tables can be invalidated.<br>
+ * This is no SQL parser, it only looks at the first words of a statement and errs on the side of invalidating too much.
+ * */
+class SqlTables {
+
+	/**
+	 * Returned for statements that may change any table, like DDL.
+	 * */
+	static final String ALL_TABLES = "*";
+
+	private static final Set<String> READS = Set.of("SELECT", "PRAGMA", "EXPLAIN", "SHOW", "DESCRIBE", "DESC", "VALUES");
+	private static final Set<String> WRITES = Set.of("INSERT", "UPDATE", "DELETE", "REPLACE");
+	private static final Set<String> CLAUSES = Set.of("WHERE", "GROUP", "ORDER", "HAVING", "LIMIT", "UNION", "EXCEPT", "INTERSECT",
+			"ON", "USING", "WINDOW", "OFFSET", "FOR", "LEFT", "RIGHT", "INNER", "OUTER", "CROSS", "NATURAL", "FULL");
+	private static final Set<String> MODIFIERS = Set.of("OR", "ROLLBACK", "ABORT", "REPLACE", "FAIL", "IGNORE",
+			"LOW_PRIORITY", "DELAYED", "HIGH_PRIORITY", "QUICK", "INTO", "FROM");
+
+	private SqlTables() {}
+
+	/**
+	 * Returns the normalized name of the table the statement writes to, {@link #ALL_TABLES} if it is unknown
+	 * or null if the statement only reads.
+	 * */
+	static String writtenTable(String sql) {
+		List<String> words = words(sql, 8);
+		if(words.isEmpty()) return null;
+		String verb = words.get(0).toUpperCase(Locale.ROOT);
+		if(READS.contains(verb)) return null;
+		if(verb.equals("WITH")) {
+			String upper = sql.toUpperCase(Locale.ROOT);
+			return upper.contains("INSERT") || upper.contains("UPDATE") || upper.contains("DELETE") ? ALL_TABLES : null;
+		}
+		if(!WRITES.contains(verb)) return ALL_TABLES;
+		for(int i = 1; i < words.size(); ++i) {
+			if(!MODIFIERS.contains(words.get(i).toUpperCase(Locale.ROOT))) return normalize(words.get(i));
+		}
+		return ALL_TABLES;
+	}
+
+	/**
+	 * Returns true if the statement can run on a read only connection.<br>
+	 * A PRAGMA does not write to a table but may change the database file or the settings of the connection it runs on,
+	 * so it always runs on the writer.
+	 * */
+	static boolean isReadOnly(String sql) {
+		if(writtenTable(sql) != null) return false;
+		List<String> words = words(sql, 1);
+		return words.isEmpty() || !words.get(0).equalsIgnoreCase("PRAGMA");
+	}
+
+	/**
+	 * Returns the normalized names of the tables a query reads from, the tables after every FROM and JOIN.<br>
+	 * Tables of views or functions are not found.
+	 * */
+	static Set<String> readTables(String sql) {
+		Set<String> tables = new HashSet<>();
+		boolean inFrom = false;
+		boolean expectTable = false;
+		for(String token : tokens(sql)) {
+			String upper = token.toUpperCase(Locale.ROOT);
+			if(upper.equals("FROM") || upper.equals("JOIN")) {
+				inFrom = true;
+				expectTable = true;
+			}else if(expectTable) {
+				if(!token.equals("(")) tables.add(normalize(token));
+				expectTable = false;
+			}else if(inFrom && token.equals(",")) {
+				expectTable = true;
+			}else if(token.equals("(") || token.equals(")") || CLAUSES.contains(upper)) {
+				inFrom = false;
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * Lower cases the table name and strips quotes and the schema.
+	 * */
+	static String normalize(String table) {
+		StringBuilder sb = new StringBuilder(table.length());
+		for(int i = 0; i < table.length(); ++i) {
+			char c = table.charAt(i);
+			if(c == '.') {
+				sb.setLength(0);
+			}else if(c != '`' && c != '"' && c != '[' && c != ']') {
+				sb.append(c);
+			}
+		}
+		return sb.toString().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Splits the start of the statement into words at whitespace, parentheses, commas and semicolons.
+	 * */
+	static List<String> words(String sql, int max) {
+		List<String> words = new ArrayList<>();
+		int start = -1;
+		for(int i = 0; i <= sql.length() && words.size() < max; ++i) {
+			boolean separator = i == sql.length() || isSeparator(sql.charAt(i));
+			if(separator && start >= 0) {
+				words.add(sql.substring(start, i));
+				start = -1;
+			}else if(!separator && start < 0) {
+				start = i;
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Splits the statement into words, commas and parentheses. Quoted strings are skipped.
+	 * */
+	private static List<String> tokens(String sql) {
+		List<String> tokens = new ArrayList<>();
+		int start = -1;
+		for(int i = 0; i <= sql.length(); ++i) {
+			char c = i == sql.length() ? ' ' : sql.charAt(i);
+			if(c == '\'') {
+				if(start >= 0) tokens.add(sql.substring(start, i));
+				start = -1;
+				int end = sql.indexOf('\'', i + 1);
+				i = end < 0 ? sql.length() : end;
+			}else if(isSeparator(c)) {
+				if(start >= 0) tokens.add(sql.substring(start, i));
+				start = -1;
+				if(c == '(' || c == ')' || c == ',') tokens.add(String.valueOf(c));
+			}else if(start < 0) {
+				start = i;
+			}
+		}
+		return tokens;
+	}
+
+	private static boolean isSeparator(char c) {
+		return Character.isWhitespace(c) || c == '(' || c == ')' || c == ',' || c == ';';
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.simpledb.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of prepared statements for a single connection keyed by the SQL text.<br>
+ * A statement is taken out of the cache while it is in use and put back with {@link #checkin(String, PreparedStatement)},
+ * so the same statement is never executed twice at the same time and an open result set is never closed by a second execution.
+ * */
+class StatementCache {
+
+	private final int maxSize;
+	private final StatementCacheStats stats;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+
+	StatementCache(int maxSize, StatementCacheStats stats) {
+		this.maxSize = maxSize;
+		this.stats = stats;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns a cached statement for the given SQL or prepares a new one if there is none.
+	 * */
+	PreparedStatement checkout(Connection connection, String sql) throws SQLException {
+		PreparedStatement ps = maxSize > 0 ? statements.remove(sql) : null;
+		if(ps != null && !ps.isClosed()) {
+			stats.hit();
+			return ps;
+		}
+		stats.miss();
+		return connection.prepareStatement(sql);
+	}
+
+	/**
+	 * Puts a statement that is no longer in use back into the cache.<br>
+	 * If the cache is full the least recently used statement is closed.
+	 * */
+	void checkin(String sql, PreparedStatement ps) throws SQLException {
+		if(ps.isClosed()) return;
+		if(maxSize <= 0) {
+			ps.close();
+			return;
+		}
+		ps.clearParameters();
+		ps.clearBatch();
+		PreparedStatement previous = statements.put(sql, ps);
+		if(previous != null && previous != ps) previous.close();
+		if(statements.size() > maxSize) {
+			Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+			PreparedStatement eldest = it.next().getValue();
+			it.remove();
+			stats.eviction();
+			eldest.close();
+		}
+	}
+
+	void close() {
+		for(PreparedStatement ps : statements.values()) {
+			try {
+				ps.close();
+			} catch (SQLException e) {
+				//The statement is dropped either way.
+			}
+		}
+		statements.clear();
+	}
+
+}
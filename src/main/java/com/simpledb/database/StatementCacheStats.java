@@ -0,0 +1,52 @@
+package com.simpledb.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counters of the prepared statement caches of all connections in a pool.
+ * */
+public class StatementCacheStats {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void eviction() {
+		evictions.increment();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the share of statements that were served from the cache or 0 if no statement has been prepared yet.
+	 * */
+	public double getHitRate() {
+		long h = getHits();
+		long total = h + getMisses();
+		return total == 0 ? 0 : (double)h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "Hits:\t" + getHits() + "\nMisses:\t" + getMisses() + "\nEvictions:\t" + getEvictions();
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.simpledb.database;
+
+/**
+ * Timings and results of one executed statement.
+ * */
+public class StatementEvent {
+
+	private final String operation;
+	private final QueryObject query;
+	private final String sql;
+	private final long latencyNanos;
+	private final long connectionWaitNanos;
+	private final long queueWaitNanos;
+	private final long rows;
+	private final Throwable error;
+	private final boolean cached;
+	private String shape;
+
+	StatementEvent(String operation, QueryObject query, String sql, long latencyNanos, long connectionWaitNanos, long queueWaitNanos, long rows, Throwable error, boolean cached) {
+		this.operation = operation;
+		this.query = query;
+		this.sql = sql;
+		this.latencyNanos = latencyNanos;
+		this.connectionWaitNanos = connectionWaitNanos;
+		this.queueWaitNanos = queueWaitNanos;
+		this.rows = rows;
+		this.error = error;
+		this.cached = cached;
+	}
+
+	/**
+	 * Returns the name of the method that executed the statement, like executeUpdate, getData or async.
+	 * */
+	public String getOperation() {
+		return operation;
+	}
+
+	public QueryObject getQuery() {
+		return query;
+	}
+
+	/**
+	 * Returns the table that executed the statement or null if it was executed directly through the {@link DatabaseManager}.
+	 * */
+	public DatabaseTable getTable() {
+		return query != null ? query.getCaller() : null;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Returns the SQL with all string and number literals replaced by <code>?</code>,
+	 * so statements that only differ in their inlined values have the same shape.
+	 * */
+	public String getShape() {
+		if(shape == null) shape = shapeOf(sql);
+		return shape;
+	}
+
+	/**
+	 * Returns the time from the start of the call until the statement completed, including the connection wait.<br>
+	 * Results read through a {@link QueryResult} complete when the result is closed.
+	 * */
+	public long getLatencyNanos() {
+		return latencyNanos;
+	}
+
+	public long getConnectionWaitNanos() {
+		return connectionWaitNanos;
+	}
+
+	/**
+	 * Returns the time an async statement waited in the queue or 0 for statements that were executed directly.
+	 * */
+	public long getQueueWaitNanos() {
+		return queueWaitNanos;
+	}
+
+	/**
+	 * Returns the number of rows that were affected or read or -1 if it is unknown.
+	 * */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the exception the statement failed with or null if it succeeded.
+	 * */
+	public Throwable getError() {
+		return error;
+	}
+
+	public boolean isFailed() {
+		return error != null;
+	}
+
+	/**
+	 * Returns true if the result came from the result cache and no statement was executed.
+	 * */
+	public boolean isCached() {
+		return cached;
+	}
+
+	@Override
+	public String toString() {
+		return operation + " " + (latencyNanos / 1000) + "us rows=" + rows + (error != null ? " failed" : "") + (cached ? " cached" : "") + ": " + sql;
+	}
+
+	static String shapeOf(String sql) {
+		if(sql == null) return null;
+		StringBuilder sb = new StringBuilder(sql.length());
+		int i = 0;
+		while(i < sql.length()) {
+			char c = sql.charAt(i);
+			if(c == '\'') {
+				int end = i + 1;
+				while(end < sql.length()) {
+					if(sql.charAt(end) == '\'') {
+						if(end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+							end += 2;
+							continue;
+						}
+						break;
+					}
+					++end;
+				}
+				sb.append('?');
+				i = end + 1;
+			}else if(Character.isDigit(c) && (sb.length() == 0 || !Character.isLetterOrDigit(sb.charAt(sb.length() - 1)) && sb.charAt(sb.length() - 1) != '_')) {
+				while(i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) ++i;
+				sb.append('?');
+			}else if(Character.isWhitespace(c)) {
+				if(sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+				++i;
+			}else {
+				sb.append(c);
+				++i;
+			}
+		}
+		int end = sb.length();
+		while(end > 0 && sb.charAt(end - 1) == ' ') --end;
+		sb.setLength(end);
+		return sb.toString();
+	}
+
+}
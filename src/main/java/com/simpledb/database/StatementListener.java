@@ -0,0 +1,13 @@
+package com.simpledb.database;
+
+/**
+ * Gets notified after every statement a {@link DatabaseManager} executed, see {@link DatabaseManager#addStatementListener(StatementListener)}.<br>
+ * Listeners are called on the thread that executed the statement, so they should return quickly.
+ * An exception thrown by a listener does not fail the statement, it is wrapped in a {@link com.simpledb.exceptions.QueryException}
+ * and passed to the exception handle of the query, see {@link QueryObject#setAsyncExceptionHandle(DatabaseManager.AsyncSQLExceptionHandle)}.
+ * */
+public interface StatementListener {
+
+	public void statementExecuted(StatementEvent event);
+
+}
@@ -0,0 +1,79 @@
+package com.simpledb.database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default {@link StatementListener} that keeps a {@link StatementStats} with a latency histogram per statement shape.<br>
+ * At most {@link #getMaxShapes()} shapes are tracked, statements of further shapes are counted under {@link #OTHER_SHAPES}.
+ * */
+public class StatementMetrics implements StatementListener {
+
+	public static final String OTHER_SHAPES = "<other>";
+
+	private final int maxShapes;
+	private final ConcurrentHashMap<String, StatementStats> shapes = new ConcurrentHashMap<>();
+	private volatile StatementStats total = new StatementStats("<all>");
+
+	public StatementMetrics() {
+		this(1000);
+	}
+
+	public StatementMetrics(int maxShapes) {
+		if(maxShapes < 1) throw new IllegalArgumentException("At least one shape has to be tracked!");
+		this.maxShapes = maxShapes;
+	}
+
+	@Override
+	public void statementExecuted(StatementEvent event) {
+		total.record(event);
+		String shape = event.getShape();
+		StatementStats stats = shapes.get(shape);
+		if(stats == null) {
+			if(shapes.size() >= maxShapes) shape = OTHER_SHAPES;
+			stats = shapes.computeIfAbsent(shape, StatementStats::new);
+		}
+		stats.record(event);
+	}
+
+	public int getMaxShapes() {
+		return maxShapes;
+	}
+
+	/**
+	 * Returns the stats of all statements together.
+	 * */
+	public StatementStats getTotal() {
+		return total;
+	}
+
+	public StatementStats getStats(String shape) {
+		return shapes.get(shape);
+	}
+
+	public Collection<StatementStats> getAllStats() {
+		return Collections.unmodifiableCollection(shapes.values());
+	}
+
+	/**
+	 * Returns the shapes with the highest p99 latency first.
+	 * */
+	public List<StatementStats> getSlowest(int limit) {
+		List<StatementStats> list = new ArrayList<>(shapes.values());
+		list.sort(Comparator.comparingLong((StatementStats s) -> s.getLatency().getPercentileNanos(99)).reversed());
+		return list.subList(0, Math.min(limit, list.size()));
+	}
+
+	/**
+	 * Drops the stats of all shapes and the total.
+	 * */
+	public void reset() {
+		shapes.clear();
+		total = new StatementStats("<all>");
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.simpledb.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and the latency histogram of all statements of one shape, see {@link StatementMetrics}.
+ * */
+public class StatementStats {
+
+	private final String shape;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder cached = new LongAdder();
+	private final LongAdder connectionWait = new LongAdder();
+	private final LongAdder queueWait = new LongAdder();
+
+	StatementStats(String shape) {
+		this.shape = shape;
+	}
+
+	void record(StatementEvent event) {
+		latency.record(event.getLatencyNanos());
+		if(event.isFailed()) errors.increment();
+		if(event.getRows() > 0) rows.add(event.getRows());
+		if(event.isCached()) cached.increment();
+		connectionWait.add(event.getConnectionWaitNanos());
+		queueWait.add(event.getQueueWaitNanos());
+	}
+
+	public String getShape() {
+		return shape;
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	public long getCount() {
+		return latency.getCount();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * Returns the sum of all rows affected or read by statements of this shape, as far as they are known.
+	 * */
+	public long getRows() {
+		return rows.sum();
+	}
+
+	public long getCached() {
+		return cached.sum();
+	}
+
+	public double getAverageConnectionWaitNanos() {
+		long n = getCount();
+		return n == 0 ? 0 : (double)connectionWait.sum() / n;
+	}
+
+	public double getAverageQueueWaitNanos() {
+		long n = getCount();
+		return n == 0 ? 0 : (double)queueWait.sum() / n;
+	}
+
+	@Override
+	public String toString() {
+		return shape + "\n" + latency + "\nErrors:\t" + getErrors() + "\nRows:\t" + getRows()
+			+ "\nConnection wait:\t" + (long)getAverageConnectionWaitNanos() / 1000 + "us\nQueue wait:\t" + (long)getAverageQueueWaitNanos() / 1000 + "us";
+	}
+
+}
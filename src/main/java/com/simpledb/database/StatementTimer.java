@@ -0,0 +1,72 @@
+package com.simpledb.database;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import com.simpledb.exceptions.QueryException;
+
+/**
+ * Measures one statement and hands the {@link StatementEvent} to the listeners once it finished.<br>
+ * Without listeners {@link #NONE} is used, which measures nothing.
+ * A failing listener is reported to the exception handle of the query, it does not fail the statement.
+ * */
+class StatementTimer {
+
+	static final StatementTimer NONE = new StatementTimer(null, null, null);
+
+	private final List<StatementListener> listeners;
+	private final String operation;
+	private final QueryObject query;
+	private final long start;
+	private long connected;
+	private long queueWait = 0;
+	private boolean cached = false;
+
+	StatementTimer(List<StatementListener> listeners, String operation, QueryObject query) {
+		this.listeners = listeners;
+		this.operation = operation;
+		this.query = query;
+		this.start = listeners != null ? System.nanoTime() : 0;
+		this.connected = start;
+	}
+
+	/**
+	 * Records the time an async statement spent in the queue before this timer was started.
+	 * */
+	void queued(long enqueuedAt) {
+		if(listeners == null) return;
+		queueWait = start - enqueuedAt;
+	}
+
+	/**
+	 * Marks the moment the connection was acquired.
+	 * */
+	void connected() {
+		if(listeners == null) return;
+		connected = System.nanoTime();
+	}
+
+	void cached() {
+		cached = true;
+	}
+
+	void finish(long rows, Throwable error) {
+		if(listeners == null) return;
+		finish(query != null ? query.getQuery() : null, rows, error);
+	}
+
+	void finish(String sql, long rows, Throwable error) {
+		if(listeners == null) return;
+		StatementEvent event = new StatementEvent(operation, query, sql, System.nanoTime() - start, connected - start, queueWait, rows, error, cached);
+		for(StatementListener listener : listeners) {
+			try {
+				listener.statementExecuted(event);
+			} catch (RuntimeException e) {
+				SQLException cause = new SQLException("Statement listener failed: " + e, e);
+				DatabaseManager.AsyncSQLExceptionHandle handle = query != null ? query.getExceptionHandle() : QueryObject.getDefaultExceptionHandle();
+				handle.handle(new QueryException(query, cause));
+			}
+		}
+	}
+
+}
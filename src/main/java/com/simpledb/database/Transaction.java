@@ -0,0 +1,136 @@
+package com.simpledb.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.simpledb.exceptions.QueryException;
+
+/**
+ * A transaction started with {@link DatabaseManager#inTransaction(DatabaseManager.TransactionCallback)}.<br>
+ * While the callback runs, its connection is pinned to the calling thread: every operation of the {@link DatabaseManager}
+ * and of any {@link DatabaseTable} on that thread runs inside the transaction.
+ * The methods of this class are shortcuts for those operations and must only be used on that thread.<br>
+ * A transaction started while another one is running on the same thread joins the running transaction.
+ * */
+public class Transaction {
+
+	/**
+	 * Keeps the isolation level of the connection.
+	 * */
+	public static final int DEFAULT_ISOLATION = -1;
+
+	private final DatabaseManager manager;
+	private final PooledConnection connection;
+	private boolean rollbackOnly = false;
+	private final Set<String> writtenTables = new HashSet<>();
+	private final List<QueryResult> openResults = new ArrayList<>();
+
+	Transaction(DatabaseManager manager, PooledConnection connection) {
+		this.manager = manager;
+		this.connection = connection;
+	}
+
+	public DatabaseManager getDatabaseManager() {
+		return manager;
+	}
+
+	public DatabaseTable getTable(String tableName) {
+		return new DatabaseTable(manager, tableName);
+	}
+
+	public boolean executeQuery(QueryObject query) throws QueryException {
+		return manager.executeQuery(query);
+	}
+
+	public int executeUpdate(QueryObject query) throws QueryException {
+		return manager.executeUpdate(query);
+	}
+
+	/**
+	 * Executes the queries with JDBC batches inside this transaction, see {@link DatabaseManager#executeBatch(List)}.
+	 * */
+	public int[] executeBatch(List<QueryObject> queries) throws QueryException {
+		return manager.executeBatch(queries);
+	}
+
+	public ResultSet getData(QueryObject query) throws SQLException {
+		return manager.getData(query);
+	}
+
+	public QueryResult getResult(QueryObject query) throws SQLException {
+		return manager.getResult(query);
+	}
+
+	public Savepoint setSavepoint() throws SQLException {
+		return connection.getConnection().setSavepoint();
+	}
+
+	public Savepoint setSavepoint(String name) throws SQLException {
+		return connection.getConnection().setSavepoint(name);
+	}
+
+	/**
+	 * Undoes all changes made after the savepoint was set. The transaction itself stays open.
+	 * */
+	public void rollback(Savepoint savepoint) throws SQLException {
+		connection.getConnection().rollback(savepoint);
+	}
+
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		connection.getConnection().releaseSavepoint(savepoint);
+	}
+
+	/**
+	 * Marks the transaction to be rolled back instead of committed once the callback returns.
+	 * */
+	public void setRollbackOnly() {
+		this.rollbackOnly = true;
+	}
+
+	public boolean isRollbackOnly() {
+		return rollbackOnly;
+	}
+
+	/**
+	 * Remembers a table written in this transaction, its caches are invalidated after the commit.
+	 * */
+	void written(String table) {
+		writtenTables.add(table);
+	}
+
+	/**
+	 * Remembers a result read on the connection of this transaction, it is closed when the transaction ends.
+	 * */
+	void opened(QueryResult result) {
+		openResults.removeIf(QueryResult::isClosed);
+		openResults.add(result);
+	}
+
+	/**
+	 * Closes the results that are still open, a result must not outlive the transaction it was read in.
+	 * */
+	void closeResults() {
+		for(QueryResult result : openResults) {
+			try {
+				result.close();
+			} catch (SQLException e) {
+				//The result is unusable either way.
+			}
+		}
+		openResults.clear();
+	}
+
+	Set<String> getWrittenTables() {
+		return writtenTables;
+	}
+
+	PooledConnection getPooledConnection() {
+		return connection;
+	}
+
+}
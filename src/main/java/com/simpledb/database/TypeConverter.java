@@ -0,0 +1,62 @@
+package com.simpledb.database;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * A registered converter for one type.<br>
+ * It converts values to and from their string form for inlined queries and reads and writes them
+ * directly through the typed JDBC getters and setters.
+ * */
+class TypeConverter {
+
+	private final QueryObject.ConvertFrom from;
+	private final QueryObject.ReadFrom<?> reader;
+	private final QueryObject.WriteTo<Object> writer;
+
+	@SuppressWarnings("unchecked")
+	<T> TypeConverter(QueryObject.ConvertFrom from, QueryObject.ConvertTo to, QueryObject.ReadFrom<T> reader, QueryObject.WriteTo<? super T> writer) {
+		this.from = from;
+		this.reader = reader != null ? reader : (rs, i) -> {
+			String s = rs.getString(i);
+			return s != null ? to.convert(s) : null;
+		};
+		this.writer = writer != null ? (QueryObject.WriteTo<Object>)writer : (ps, i, o) -> ps.setString(i, from.convert(o));
+	}
+
+	QueryObject.ConvertFrom getConvertFrom() {
+		return from;
+	}
+
+	/**
+	 * Reads the column at the given index of the current row.
+	 * */
+	Object read(ResultSet rs, int index) throws SQLException {
+		return reader.read(rs, index);
+	}
+
+	/**
+	 * Binds the value to the parameter at the given index.
+	 * */
+	void write(PreparedStatement ps, int index, Object value) throws SQLException {
+		writer.write(ps, index, value);
+	}
+
+	/**
+	 * Reads a UUID from a 16 byte binary column or from its string form.
+	 * */
+	static UUID readUUID(ResultSet rs, int index) throws SQLException {
+		Object o = rs.getObject(index);
+		if(o == null) return null;
+		if(o instanceof UUID) return (UUID)o;
+		if(o instanceof byte[] && ((byte[])o).length == 16) {
+			ByteBuffer bytes = ByteBuffer.wrap((byte[])o);
+			return new UUID(bytes.getLong(), bytes.getLong());
+		}
+		return UUID.fromString(o.toString());
+	}
+
+}
@@ -10,4 +10,8 @@ public class DatabaseManagerException extends Exception{
 		super(message);
 	}
 	
+	public DatabaseManagerException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
 }
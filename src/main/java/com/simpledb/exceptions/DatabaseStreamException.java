@@ -0,0 +1,13 @@
+package com.simpledb.exceptions;
+
+/**
+ * Thrown by result streams when reading or mapping a row fails.<br>
+ * Streams can not throw checked exceptions, the original exception is available as the cause.
+ * */
+public class DatabaseStreamException extends RuntimeException{
+
+	public DatabaseStreamException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+}
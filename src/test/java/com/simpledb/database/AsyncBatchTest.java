@@ -0,0 +1,97 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.simpledb.exceptions.QueryException;
+
+public class AsyncBatchTest extends SqliteTestBase {
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setAsyncCoalesceSize(16);
+	}
+
+	private static QueryObject insert(int id) {
+		QueryObject insert = new QueryObject("INSERT", "users");
+		insert.setBindParameters(true);
+		insert.addValue("id", (Object)id);
+		insert.addValue("name", (Object)("user" + id));
+		return insert;
+	}
+
+	/**
+	 * Occupies the single worker until the latch is released, so the following statements queue up and are coalesced.
+	 * */
+	private CompletableFuture<Integer> blockWorker(CountDownLatch latch) throws Exception {
+		return manager.submit(QueryObject.getQueryObject("SELECT 1"), rs -> {
+			try {
+				latch.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 0;
+		});
+	}
+
+	@Test
+	public void coalescedInsertsCompleteWithTheirUpdateCounts() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		CompletableFuture<Integer> blocker = blockWorker(latch);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for(int i = 1; i <= 100; ++i) futures.add(manager.submit(insert(i)));
+		latch.countDown();
+		blocker.get(5, TimeUnit.SECONDS);
+		for(CompletableFuture<Integer> future : futures) assertEquals(1, (int)future.get(5, TimeUnit.SECONDS));
+		assertEquals(100, count("SELECT count(*) FROM users"));
+		assertTrue(manager.getAsyncQueueStats().getCoalescedBatches() > 0);
+		assertEquals(100, manager.getAsyncQueueStats().getCoalescedStatements());
+	}
+
+	@Test
+	public void failingRowOnlyFailsItsOwnStatement() throws Exception {
+		insertUsers(1);
+		CountDownLatch latch = new CountDownLatch(1);
+		CompletableFuture<Integer> blocker = blockWorker(latch);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		futures.add(manager.submit(insert(2)));
+		futures.add(manager.submit(insert(1)));
+		futures.add(manager.submit(insert(3)));
+		latch.countDown();
+		blocker.get(5, TimeUnit.SECONDS);
+		assertEquals(1, (int)futures.get(0).get(5, TimeUnit.SECONDS));
+		try {
+			futures.get(1).get(5, TimeUnit.SECONDS);
+			fail("The duplicate key should have failed");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof QueryException);
+		}
+		assertEquals(1, (int)futures.get(2).get(5, TimeUnit.SECONDS));
+		assertEquals(1, manager.getAsyncQueueStats().getCoalescedBatches());
+		//The failed batch is rolled back and the statements run again one by one.
+		assertEquals(3, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void statementFailuresReachTheExceptionHandle() throws Exception {
+		CompletableFuture<QueryException> reported = new CompletableFuture<>();
+		QueryObject statement = QueryObject.getQueryObject("INSERT INTO users VALUES (1, 'user1', 0)");
+		statement.setAsyncCallback(rs -> {
+			throw new IllegalStateException("callback failed");
+		});
+		statement.setAsyncExceptionHandle(reported::complete);
+		manager.asyncSqlStatement(statement);
+		assertTrue(reported.get(5, TimeUnit.SECONDS).getSqlException().getCause() instanceof IllegalStateException);
+	}
+
+}
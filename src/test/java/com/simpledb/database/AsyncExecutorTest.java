@@ -0,0 +1,177 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.simpledb.exceptions.DatabaseManagerException;
+import com.simpledb.exceptions.QueryException;
+
+public class AsyncExecutorTest extends SqliteTestBase {
+
+	/**
+	 * Opens a second manager on its own database, so every test can choose its own async settings.
+	 * */
+	private DatabaseManager open(Consumer<DatabaseInfo> settings) throws Exception {
+		DatabaseManager async = new DatabaseManager();
+		DatabaseInfo info = DatabaseManager.getDatabaseInfo(folder.getRoot().getAbsolutePath(), "async");
+		settings.accept(info);
+		async.createDatabaseConnection(info);
+		return async;
+	}
+
+	/**
+	 * Occupies a worker until the release latch is counted down, the started latch is counted down once the worker runs it.
+	 * */
+	private static CompletableFuture<Integer> block(DatabaseManager async, CountDownLatch started, CountDownLatch release) throws Exception {
+		return async.submit(QueryObject.getQueryObject("SELECT 1"), rs -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 0;
+		});
+	}
+
+	@Test
+	public void submitTellsQueriesFromUpdates() throws Exception {
+		assertEquals(1, (int)manager.submit(QueryObject.getQueryObject("INSERT INTO users VALUES (1, 'a', 10)")).get(5, TimeUnit.SECONDS));
+		assertEquals(-1, (int)manager.submit(QueryObject.getQueryObject("SELECT * FROM users")).get(5, TimeUnit.SECONDS));
+		assertEquals(1, (int)manager.submit(QueryObject.getQueryObject("SELECT * FROM users"), SqliteTestBase::rows).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void failuresCompleteTheFutureExceptionally() throws Exception {
+		CompletableFuture<Integer> future = manager.submit(QueryObject.getQueryObject("INSERT INTO missing VALUES (1)"));
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("The statement should have failed");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof QueryException);
+		}
+	}
+
+	@Test
+	public void workersRunStatementsConcurrently() throws Exception {
+		DatabaseManager async = open(info -> {
+			info.setAsyncWorkers(3);
+			info.setMaxPoolSize(3);
+		});
+		try {
+			//Every handler waits until all three run, which only happens if three workers run them at the same time.
+			CountDownLatch running = new CountDownLatch(3);
+			List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+			for(int i = 0; i < 3; ++i) {
+				futures.add(async.submit(QueryObject.getQueryObject("SELECT 1"), rs -> {
+					running.countDown();
+					try {
+						return running.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+				}));
+			}
+			for(CompletableFuture<Boolean> future : futures) assertTrue(future.get(10, TimeUnit.SECONDS));
+		} finally {
+			async.closeConnection();
+		}
+	}
+
+	@Test
+	public void rejectPolicyFailsTheSubmit() throws Exception {
+		DatabaseManager async = open(info -> {
+			info.setAsyncQueueCapacity(1);
+			info.setAsyncOverflowPolicy(AsyncOverflowPolicy.REJECT);
+		});
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CompletableFuture<Integer> blocker = block(async, started, release);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			CompletableFuture<Integer> queued = async.submit(QueryObject.getQueryObject("SELECT 1"));
+			try {
+				async.submit(QueryObject.getQueryObject("SELECT 2"));
+				fail("The full queue should reject the statement");
+			} catch (DatabaseManagerException expected) {
+			}
+			assertEquals(1, async.getAsyncQueueStats().getRejected());
+			release.countDown();
+			blocker.get(5, TimeUnit.SECONDS);
+			assertEquals(-1, (int)queued.get(5, TimeUnit.SECONDS));
+		} finally {
+			async.closeConnection();
+		}
+	}
+
+	@Test
+	public void dropOldestPolicyFailsTheOldestStatement() throws Exception {
+		DatabaseManager async = open(info -> {
+			info.setAsyncQueueCapacity(1);
+			info.setAsyncOverflowPolicy(AsyncOverflowPolicy.DROP_OLDEST);
+		});
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CompletableFuture<Integer> blocker = block(async, started, release);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			CompletableFuture<Integer> oldest = async.submit(QueryObject.getQueryObject("SELECT 1"));
+			CompletableFuture<Integer> newest = async.submit(QueryObject.getQueryObject("SELECT 2"));
+			try {
+				oldest.get(5, TimeUnit.SECONDS);
+				fail("The oldest statement should have been dropped");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof QueryException);
+			}
+			release.countDown();
+			blocker.get(5, TimeUnit.SECONDS);
+			assertEquals(-1, (int)newest.get(5, TimeUnit.SECONDS));
+			assertEquals(1, async.getAsyncQueueStats().getDropped());
+		} finally {
+			async.closeConnection();
+		}
+	}
+
+	@Test
+	public void blockPolicyWaitsForRoom() throws Exception {
+		DatabaseManager async = open(info -> {
+			info.setAsyncQueueCapacity(1);
+			info.setAsyncOverflowPolicy(AsyncOverflowPolicy.BLOCK);
+		});
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CompletableFuture<Integer> blocker = block(async, started, release);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			async.submit(QueryObject.getQueryObject("SELECT 1"));
+			CompletableFuture<CompletableFuture<Integer>> submitted = CompletableFuture.supplyAsync(() -> {
+				try {
+					return async.submit(QueryObject.getQueryObject("SELECT 2"));
+				} catch (DatabaseManagerException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			Thread.sleep(100);
+			assertFalse(submitted.isDone());
+			release.countDown();
+			blocker.get(5, TimeUnit.SECONDS);
+			assertEquals(-1, (int)submitted.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+		} finally {
+			async.closeConnection();
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.exceptions.QueryException;
+
+public class BatchInsertTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+
+		public User(int id) {
+			this.id = id;
+			this.name = "user" + id;
+		}
+	}
+
+	@BeforeClass
+	public static void registerInsertOrIgnore() {
+		QueryObject.addQueryTemplate("INSERT_OR_IGNORE", q -> "INSERT OR IGNORE INTO " + q.getTableName() + " " + QueryObject.constructValuePlaceholderList(q.getValueList()));
+	}
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setBatchSize(4);
+	}
+
+	private static List<User> users(int... ids) {
+		List<User> users = new ArrayList<>();
+		for(int id : ids) users.add(new User(id));
+		return users;
+	}
+
+	@Test
+	public void updateCountsFollowTheObjectsOverSeveralBatches() throws Exception {
+		insertUsers(2);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		//The rows 1 and 2 exist already and are ignored, they land in the first and the third batch.
+		int[] counts = table.insertAll(users(3, 1, 4, 5, 6, 7, 8, 9, 2, 10), "INSERT_OR_IGNORE");
+		assertArrayEquals(new int[] {1, 0, 1, 1, 1, 1, 1, 1, 0, 1}, counts);
+		assertEquals(10, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void failingRowRollsBackOnlyItsBatch() throws Exception {
+		manager.executeUpdate(QueryObject.getQueryObject("INSERT INTO users VALUES (100, 'taken', 0)"));
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		try {
+			table.insertAll(users(1, 2, 3, 4, 5, 100, 6, 7, 8, 9), "INSERT");
+			fail("The duplicate key should fail the batch");
+		} catch (QueryException expected) {
+		}
+		//The first batch is committed, the failing second batch is rolled back and the third never runs.
+		assertEquals(4, count("SELECT count(*) FROM users WHERE id < 100"));
+		assertEquals(0, count("SELECT count(*) FROM users WHERE id BETWEEN 5 AND 9"));
+	}
+
+}
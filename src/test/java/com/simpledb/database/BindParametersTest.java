@@ -0,0 +1,88 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+
+public class BindParametersTest extends SqliteTestBase {
+
+	public static class Tag {
+		private final String name;
+
+		public Tag(String name) {
+			this.name = name;
+		}
+	}
+
+	@BeforeClass
+	public static void registerTag() {
+		QueryObject.registerConverter(Tag.class, o -> o != null ? ((Tag)o).name : null, Tag::new);
+	}
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+		@DatabaseField(columnName = "score")
+		public int score;
+		@DatabaseField(columnName = "tag")
+		public Tag tag;
+
+		public User(int id) {
+			this.id = id;
+		}
+	}
+
+	@Test
+	public void nullValuesAreBound() throws Exception {
+		QueryObject insert = new QueryObject("INSERT", "users");
+		insert.setBindParameters(true);
+		insert.addValue("id", (Object)1);
+		insert.addValue("name", (Object)null);
+		insert.addValue("score", (Object)null);
+		assertEquals(1, manager.executeUpdate(insert));
+		assertEquals(1, count("SELECT count(*) FROM users WHERE name IS NULL AND score IS NULL"));
+	}
+
+	@Test
+	public void nullValuesOfObjectsAreBound() throws Exception {
+		manager.executeUpdate(QueryObject.getQueryObject("ALTER TABLE users ADD COLUMN tag TEXT"));
+		QueryObject insert = new QueryObject("INSERT", "users");
+		insert.setBindParameters(true);
+		insert.addValues(new User(1));
+		assertEquals(1, manager.executeUpdate(insert));
+		assertEquals(1, count("SELECT count(*) FROM users WHERE name IS NULL AND score = 0 AND tag IS NULL"));
+	}
+
+	/**
+	 * NULL is bound with the SQL type of the declared field type, the parameter metadata of the driver is never asked.
+	 * */
+	@Test
+	public void nullTypesComeFromTheDeclaredTypes() throws Exception {
+		List<String> calls = new ArrayList<>();
+		PreparedStatement ps = (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+			if(method.getName().equals("getParameterMetaData")) throw new AssertionError("Parameter metadata was read");
+			calls.add(method.getName() + Arrays.toString(args));
+			return null;
+		});
+		QueryObject insert = new QueryObject("INSERT", "users");
+		insert.setBindParameters(true);
+		insert.addValues(new User(1));
+		insert.bindParameters(ps);
+		assertEquals(Arrays.asList("setInt[1, 1]", "setNull[2, " + Types.VARCHAR + "]", "setInt[3, 0]", "setObject[4, null]"), calls);
+	}
+
+}
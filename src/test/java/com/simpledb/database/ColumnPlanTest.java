@@ -0,0 +1,84 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.exceptions.DatabaseTableException;
+
+public class ColumnPlanTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+
+		@DatabaseField(columnName = "label")
+		public String label() {
+			return name;
+		}
+	}
+
+	@DatabaseObject
+	public static class Blob {
+		@DatabaseField(columnName = "data")
+		public int data;
+	}
+
+	private int[] plan(String sql, Class<?> type) throws Exception {
+		try(QueryResult result = manager.getResult(QueryObject.getQueryObject(sql))) {
+			return ColumnPlan.of(result.getResultSet(), EntityMapper.of(type).getColumns(0), type).getIndexes();
+		}
+	}
+
+	@Test
+	public void labelsResolveCaseInsensitively() throws Exception {
+		insertUsers(1);
+		//Method columns are not read back and get the index 0.
+		assertArrayEquals(new int[] {3, 1, 0}, plan("SELECT NAME, score, ID FROM users", User.class));
+	}
+
+	@Test
+	public void firstColumnWithALabelWins() throws Exception {
+		insertUsers(1);
+		assertArrayEquals(new int[] {1, 2, 0}, plan("SELECT id, name, score AS id FROM users", User.class));
+	}
+
+	@Test
+	public void missingColumnIsReported() throws Exception {
+		insertUsers(1);
+		try {
+			plan("SELECT id FROM users", User.class);
+			fail("The name column is missing");
+		} catch (DatabaseTableException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("name"));
+		}
+	}
+
+	@Test
+	public void binaryColumnIsRejectedForAPrimitiveField() throws Exception {
+		manager.executeUpdate(QueryObject.getQueryObject("CREATE TABLE blobs (data BLOB)"));
+		manager.executeUpdate(QueryObject.getQueryObject("INSERT INTO blobs VALUES (x'00ff')"));
+		try {
+			plan("SELECT data FROM blobs", Blob.class);
+			fail("A BLOB can not be read into an int");
+		} catch (DatabaseTableException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("data"));
+		}
+	}
+
+	@Test
+	public void indexesOfLabels() throws Exception {
+		insertUsers(1);
+		try(QueryResult result = manager.getResult(QueryObject.getQueryObject("SELECT id, name FROM users"))) {
+			assertArrayEquals(new int[] {2, 0, 1}, ColumnPlan.indexes(result.getResultSet(), new String[] {"Name", "missing", "id"}));
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConnectionPoolTest extends SqliteTestBase {
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setBorrowTimeout(1000);
+	}
+
+	private DatabaseInfo poolInfo(int minSize, int maxSize) {
+		DatabaseInfo info = DatabaseManager.getDatabaseInfo(folder.getRoot().getAbsolutePath(), "pool");
+		info.setMinPoolSize(minSize);
+		info.setMaxPoolSize(maxSize);
+		info.setBorrowTimeout(200);
+		return info;
+	}
+
+	@Test
+	public void exhaustedPoolTimesOut() throws Exception {
+		ConnectionPool pool = new ConnectionPool(poolInfo(0, 2));
+		try {
+			PooledConnection first = pool.borrow();
+			PooledConnection second = pool.borrow();
+			long start = System.nanoTime();
+			try {
+				pool.borrow();
+				fail("The pool should not open more than its max size");
+			} catch (SQLTransientConnectionException expected) {
+			}
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+			pool.release(first);
+			assertSame(first, pool.borrow());
+			pool.release(first);
+			pool.release(second);
+			assertEquals(2, pool.getIdleCount());
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void waitingBorrowGetsTheReleasedConnection() throws Exception {
+		DatabaseInfo info = poolInfo(0, 1);
+		info.setBorrowTimeout(5000);
+		ConnectionPool pool = new ConnectionPool(info);
+		try {
+			PooledConnection pc = pool.borrow();
+			CompletableFuture<PooledConnection> waiting = CompletableFuture.supplyAsync(() -> {
+				try {
+					return pool.borrow();
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			Thread.sleep(100);
+			assertFalse(waiting.isDone());
+			pool.release(pc);
+			assertSame(pc, waiting.get(5, TimeUnit.SECONDS));
+			pool.release(pc);
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void closedConnectionIsNotHandedOut() throws Exception {
+		DatabaseInfo info = poolInfo(0, 1);
+		info.setValidationInterval(0);
+		ConnectionPool pool = new ConnectionPool(info);
+		try {
+			PooledConnection pc = pool.borrow();
+			pool.release(pc);
+			pc.getConnection().close();
+			assertFalse(pool.validate(pc));
+			Thread.sleep(5);
+			PooledConnection replacement = pool.borrow();
+			assertNotSame(pc, replacement);
+			assertFalse(replacement.isClosed());
+			pool.release(replacement);
+			assertEquals(1, pool.getIdleCount());
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void idleConnectionsAboveTheMinSizeAreEvicted() throws Exception {
+		DatabaseInfo info = poolInfo(1, 3);
+		info.setIdleTimeout(50);
+		ConnectionPool pool = new ConnectionPool(info);
+		try {
+			PooledConnection first = pool.borrow();
+			PooledConnection second = pool.borrow();
+			PooledConnection third = pool.borrow();
+			pool.release(first);
+			pool.release(second);
+			pool.release(third);
+			assertEquals(3, pool.getIdleCount());
+			Thread.sleep(100);
+			pool.evictIdle();
+			assertEquals(1, pool.getIdleCount());
+			assertTrue(first.isClosed());
+			assertTrue(second.isClosed());
+			//The most recently used connection is kept.
+			assertFalse(third.isClosed());
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void doubleReleaseIsIgnored() throws Exception {
+		ConnectionPool pool = new ConnectionPool(poolInfo(0, 2));
+		try {
+			PooledConnection pc = pool.borrow();
+			pool.release(pc);
+			pool.release(pc);
+			assertEquals(1, pool.getIdleCount());
+			PooledConnection first = pool.borrow();
+			PooledConnection second = pool.borrow();
+			assertNotSame(first, second);
+			pool.release(first);
+			pool.release(second);
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void resultClosedAfterTransactionDoesNotReleaseTwice() throws Exception {
+		insertUsers(3);
+		QueryResult result = manager.inTransaction(tx -> tx.getResult(QueryObject.getQueryObject("SELECT * FROM users")));
+		try {
+			result.next();
+			fail("A result must not outlive its transaction");
+		} catch (SQLException expected) {
+		}
+		result.close();
+		assertEquals(3, count("SELECT count(*) FROM users"));
+		manager.closeConnection();
+		manager.createDatabaseConnection(DatabaseManager.getDatabaseInfo(folder.getRoot().getAbsolutePath(), "test"));
+	}
+
+}
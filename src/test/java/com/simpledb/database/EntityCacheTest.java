@@ -0,0 +1,110 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+
+public class EntityCacheTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+		@DatabaseField(columnName = "score")
+		public int score;
+
+		@DatabaseObjectConstructor
+		public User() {}
+
+		public User(int id) {
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Looks a user up by the id of the given object, its other values are ignored.
+	 * */
+	@BeforeClass
+	public static void registerSelectById() {
+		QueryObject.addQueryConstructor("SELECT_BY_ID", q -> {
+			String id = null;
+			for(Pair<String, String> p : q.getValueList()) {
+				if(p.getFirst().equals("id")) id = p.getSecond();
+			}
+			return "SELECT " + QueryObject.constructColumnList(q) + " FROM " + q.getTableName() + " WHERE id = " + id;
+		});
+	}
+
+	@Test
+	public void hitsAreServedWithoutAQuery() throws Exception {
+		insertUsers(2);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		table.enableCache(100, 60000);
+		User first = table.getDatabaseObject(User.class, new User(2), "SELECT_BY_ID");
+		manager.addStatementListener(event -> {
+			throw new AssertionError("The cached object should not be read again: " + event.getSql());
+		});
+		User second = table.getDatabaseObject(User.class, new User(2), "SELECT_BY_ID");
+		assertNotSame(first, second);
+		assertEquals("user2", second.name);
+		assertEquals(20, second.score);
+		assertEquals(1, table.getCacheStats().getHits());
+		assertEquals(1, table.getCacheStats().getMisses());
+	}
+
+	@Test
+	public void writesToTheTableInvalidateTheCache() throws Exception {
+		insertUsers(2);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		table.enableCache(100, 60000);
+		assertEquals(20, table.getDatabaseObject(User.class, new User(2), "SELECT_BY_ID").score);
+		manager.executeUpdate(QueryObject.getQueryObject("UPDATE users SET score = 99 WHERE id = 2"));
+		assertEquals(99, table.getDatabaseObject(User.class, new User(2), "SELECT_BY_ID").score);
+		assertEquals(1, table.getCacheStats().getInvalidations());
+		assertEquals(2, table.getCacheStats().getMisses());
+	}
+
+	@Test
+	public void entriesExpireAfterTheTimeToLive() throws Exception {
+		EntityCache cache = new EntityCache(10, 20);
+		cache.put("key", new Object[] {1}, cache.getGeneration());
+		assertArrayEquals(new Object[] {1}, cache.get("key"));
+		Thread.sleep(40);
+		assertNull(cache.get("key"));
+		assertEquals(1, cache.getStats().getHits());
+		assertEquals(1, cache.getStats().getMisses());
+	}
+
+	@Test
+	public void valuesReadBeforeAnInvalidationAreNotStored() throws Exception {
+		EntityCache cache = new EntityCache(10, 60000);
+		long generation = cache.getGeneration();
+		cache.invalidate();
+		cache.put("key", new Object[] {1}, generation);
+		assertNull(cache.get("key"));
+		cache.put("key", new Object[] {2}, cache.getGeneration());
+		assertArrayEquals(new Object[] {2}, cache.get("key"));
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+		EntityCache cache = new EntityCache(2, 60000);
+		cache.put("a", new Object[] {1}, 0);
+		cache.put("b", new Object[] {2}, 0);
+		cache.get("a");
+		cache.put("c", new Object[] {3}, 0);
+		assertNull(cache.get("b"));
+		assertArrayEquals(new Object[] {1}, cache.get("a"));
+		assertEquals(1, cache.getStats().getEvictions());
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.exceptions.QueryObjectException;
+
+public class EntityMapperTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id", groups = {0, 1}, key = true)
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+		@DatabaseField(columnName = "score", groups = 1)
+		public int score;
+
+		@DatabaseObjectConstructor
+		public User() {}
+
+		public User(int id, String name, int score) {
+			this.id = id;
+			this.name = name;
+			this.score = score;
+		}
+
+		@DatabaseField(columnName = "label", groups = 2)
+		public String label() {
+			return name + ":" + score;
+		}
+	}
+
+	public static class Plain {
+		public int id;
+	}
+
+	public static class Marker {
+	}
+
+	@Test
+	public void metadataIsBuiltOncePerClass() {
+		EntityMapper<User> mapper = EntityMapper.of(User.class);
+		assertSame(mapper, EntityMapper.of(User.class));
+		assertSame(mapper.getColumns(1), mapper.getColumns(1));
+		assertSame(mapper.getColumnList(0), mapper.getColumnList(0));
+	}
+
+	@Test
+	public void registeringAConverterRebuildsTheMetadata() {
+		EntityMapper<User> mapper = EntityMapper.of(User.class);
+		QueryObject.registerConverter(Marker.class, o -> "", s -> new Marker());
+		assertNotSame(mapper, EntityMapper.of(User.class));
+	}
+
+	@Test
+	public void columnsAreSelectedByGroup() {
+		EntityMapper<User> mapper = EntityMapper.of(User.class);
+		assertEquals("id, name", mapper.getColumnList(0));
+		assertEquals("id, score", mapper.getColumnList(1));
+		assertEquals(3, mapper.getColumns(0, 1).size());
+		//Method columns are written but not read back.
+		assertEquals(1, mapper.getColumns(2).size());
+		assertNull(mapper.getColumnList(2));
+		assertEquals(1, mapper.getKeyColumns().size());
+		assertEquals("id", mapper.getKeyColumns().get(0).getColumnName());
+	}
+
+	@Test
+	public void valuesAreReadThroughTheCachedAccessors() throws Exception {
+		QueryObject q = new QueryObject("INSERT", "users");
+		q.addValues(new User(1, "a", 10), 1, 2);
+		List<String> values = new ArrayList<>();
+		for(Pair<String, String> p : q.getValueList()) values.add(p.getFirst() + "=" + p.getSecond());
+		assertEquals(List.of("id=1", "score=10", "label=a:10"), values);
+	}
+
+	@Test
+	public void rowsAreMappedIntoNewObjects() throws Exception {
+		insertUsers(3);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		List<User> users = table.getAllDatabaseObject(User.class, QueryObject.getQueryObject("SELECT * FROM users ORDER BY id"), 0, 1);
+		assertEquals(3, users.size());
+		assertEquals("user3", users.get(2).name);
+		assertEquals(30, users.get(2).score);
+	}
+
+	@Test
+	public void classesWithoutAnnotationAreRejected() {
+		try {
+			new QueryObject("INSERT", "users").addValues(new Plain());
+			fail("A class without @DatabaseObject can not be written");
+		} catch (QueryObjectException e) {
+			assertTrue(e.getMessage().contains("DatabaseObject"));
+		}
+	}
+
+}
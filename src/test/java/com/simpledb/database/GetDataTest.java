@@ -0,0 +1,36 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.ResultSet;
+
+import org.junit.Test;
+
+public class GetDataTest extends SqliteTestBase {
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setBorrowTimeout(1000);
+	}
+
+	@Test
+	public void resultOutlivesItsConnection() throws Exception {
+		insertUsers(50);
+		ResultSet rs = manager.getData(QueryObject.getQueryObject("SELECT * FROM users ORDER BY id"));
+		manager.executeUpdate(QueryObject.getQueryObject("DELETE FROM users"));
+		manager.closeConnection();
+		assertEquals(50, rows(rs));
+		rs.close();
+		manager.createDatabaseConnection(DatabaseManager.getDatabaseInfo(folder.getRoot().getAbsolutePath(), "test"));
+	}
+
+	@Test
+	public void unclosedResultsDoNotHoldConnections() throws Exception {
+		insertUsers(5);
+		for(int i = 0; i < 10; ++i) {
+			manager.getData(QueryObject.getQueryObject("SELECT * FROM users"));
+		}
+		assertEquals(5, count("SELECT count(*) FROM users"));
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.simpledb.exceptions.QueryException;
+
+public class GroupCommitTest extends SqliteTestBase {
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setAsyncGroupCommit(true);
+		info.setAsyncGroupCommitDelay(200);
+		info.setMaxPoolSize(2);
+	}
+
+	private static QueryObject insert(int id) {
+		return QueryObject.getQueryObject("INSERT INTO users VALUES (" + id + ", 'user" + id + "', 0)");
+	}
+
+	@Test
+	public void failingStatementDoesNotFailTheGroup() throws Exception {
+		insertUsers(1);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		futures.add(manager.submit(insert(2)));
+		futures.add(manager.submit(insert(1)));
+		futures.add(manager.submit(insert(3)));
+		assertEquals(1, (int)futures.get(0).get(5, TimeUnit.SECONDS));
+		assertFailed(futures.get(1));
+		assertEquals(1, (int)futures.get(2).get(5, TimeUnit.SECONDS));
+		assertEquals(3, count("SELECT count(*) FROM users"));
+	}
+
+	/**
+	 * INSERT OR ROLLBACK rolls back the whole transaction on SQLite, like a deadlock on MySQL, so the savepoint is gone.
+	 * */
+	@Test
+	public void statementsRunAgainWhenTheTransactionWasRolledBack() throws Exception {
+		insertUsers(1);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		futures.add(manager.submit(insert(2)));
+		futures.add(manager.submit(QueryObject.getQueryObject("INSERT OR ROLLBACK INTO users VALUES (1, 'again', 0)")));
+		futures.add(manager.submit(insert(3)));
+		assertEquals(1, (int)futures.get(0).get(5, TimeUnit.SECONDS));
+		assertFailed(futures.get(1));
+		assertEquals(1, (int)futures.get(2).get(5, TimeUnit.SECONDS));
+		assertEquals(3, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void unregisteredCommandFailsOnItsOwn() throws Exception {
+		CompletableFuture<QueryException> reported = new CompletableFuture<>();
+		QueryObject missingStatement = new QueryObject("MISSING", "users");
+		missingStatement.setAsyncExceptionHandle(reported::complete);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		futures.add(manager.submit(insert(1)));
+		futures.add(manager.submit(new QueryObject("MISSING", "users")));
+		manager.asyncSqlStatement(missingStatement);
+		futures.add(manager.submit(insert(2)));
+		assertEquals(1, (int)futures.get(0).get(5, TimeUnit.SECONDS));
+		try {
+			futures.get(1).get(5, TimeUnit.SECONDS);
+			fail("The statement should have failed");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof NullPointerException);
+		}
+		assertEquals(1, (int)futures.get(2).get(5, TimeUnit.SECONDS));
+		assertTrue(reported.get(5, TimeUnit.SECONDS).getSqlException().getCause() instanceof NullPointerException);
+		assertEquals(2, count("SELECT count(*) FROM users"));
+		//The worker is still alive.
+		assertEquals(1, (int)manager.submit(insert(3)).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void queriesOnlySeeCommittedRows() throws Exception {
+		CompletableFuture<Integer> inserted = manager.submit(insert(1));
+		CompletableFuture<Integer> seen = manager.submit(QueryObject.getQueryObject("SELECT 1"), rs -> count("SELECT count(*) FROM users"));
+		assertEquals(1, (int)inserted.get(5, TimeUnit.SECONDS));
+		assertEquals(1, (int)seen.get(5, TimeUnit.SECONDS));
+	}
+
+	private static void assertFailed(CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("The statement should have failed");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof QueryException);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+
+public class KeysetPagerTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class Score {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "score")
+		public int score;
+
+		@DatabaseObjectConstructor
+		public Score() {}
+
+		public Score(int id, int score) {
+			this.id = id;
+			this.score = score;
+		}
+	}
+
+	private DatabaseTable insertScores(int count) throws Exception {
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		List<Score> scores = new ArrayList<>();
+		for(int i = 1; i <= count; ++i) scores.add(new Score(i, i * 10));
+		int[] counts = table.insertAll(scores, "INSERT");
+		assertEquals(count, counts.length);
+		return table;
+	}
+
+	@Test
+	public void readsEveryRowOnce() throws Exception {
+		KeysetPager<Score> pager = insertScores(25).pages(Score.class, "id", 10);
+		List<Integer> sizes = new ArrayList<>();
+		int expected = 1;
+		for(List<Score> page : pager) {
+			sizes.add(page.size());
+			for(Score score : page) assertEquals(expected++, score.id);
+		}
+		assertEquals(List.of(10, 10, 5), sizes);
+		assertTrue(pager.isDone());
+		assertEquals(25, pager.getLastKey() instanceof Number ? ((Number)pager.getLastKey()).intValue() : -1);
+	}
+
+	@Test
+	public void resumesAfterAKey() throws Exception {
+		KeysetPager<Score> pager = insertScores(25).pages(Score.class, "id", 10);
+		pager.startAfter(20);
+		assertEquals(5, pager.stream().count());
+	}
+
+}
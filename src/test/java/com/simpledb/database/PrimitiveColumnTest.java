@@ -0,0 +1,73 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrimitiveColumnTest extends SqliteTestBase {
+
+	private DatabaseTable table;
+
+	/**
+	 * 40 rows grow the columns past their initial capacity of 16, the last row has a NULL score.
+	 * */
+	@Before
+	public void fill() throws Exception {
+		insertUsers(40);
+		manager.executeUpdate(QueryObject.getQueryObject("INSERT INTO users VALUES (41, 'nobody', NULL)"));
+		table = new DatabaseTable(manager, "users");
+	}
+
+	@Test
+	public void intColumnSkipsNullsAndGrows() throws Exception {
+		IntColumn scores = table.getIntColumn(QueryObject.getQueryObject("SELECT score FROM users ORDER BY id"), "score");
+		assertEquals(40, scores.size());
+		for(int i = 0; i < 40; ++i) assertEquals((i + 1) * 10, scores.get(i));
+		assertEquals(40, scores.toArray().length);
+		assertEquals(8200, scores.stream().sum());
+		try {
+			scores.get(40);
+			fail("Reads past the size should fail");
+		} catch (IndexOutOfBoundsException expected) {
+		}
+	}
+
+	@Test
+	public void columnsAreReadByIndex() throws Exception {
+		IntColumn ids = table.getIntColumn(QueryObject.getQueryObject("SELECT id, score FROM users ORDER BY id"), 1);
+		assertEquals(41, ids.size());
+		assertEquals(41, ids.get(40));
+	}
+
+	@Test
+	public void longColumnSkipsNullsAndGrows() throws Exception {
+		LongColumn scores = table.getLongColumn(QueryObject.getQueryObject("SELECT score * 10000000000 AS big FROM users ORDER BY id"), "big");
+		assertEquals(40, scores.size());
+		assertEquals(100000000000L, scores.get(0));
+		assertEquals(4000000000000L, scores.get(39));
+		assertEquals(scores.size(), scores.stream().count());
+	}
+
+	@Test
+	public void booleanColumnSkipsNullsAndGrows() throws Exception {
+		BooleanColumn big = table.getBooleanColumn(QueryObject.getQueryObject("SELECT score > 200 AS big FROM users ORDER BY id"), "big");
+		assertEquals(40, big.size());
+		assertEquals(20, big.countTrue());
+		assertTrue(big.get(39));
+		boolean[] values = big.toArray();
+		assertEquals(40, values.length);
+		assertFalse(values[0]);
+		assertFalse(values[19]);
+		assertTrue(values[20]);
+	}
+
+	@Test
+	public void emptyResultGivesAnEmptyColumn() throws Exception {
+		assertTrue(table.getIntColumn(QueryObject.getQueryObject("SELECT score FROM users WHERE id > 100"), "score").isEmpty());
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+
+public class ProjectionTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class Score {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "score")
+		public int score;
+
+		@DatabaseObjectConstructor
+		public Score() {}
+	}
+
+	@BeforeClass
+	public static void registerSelect() {
+		QueryObject.addQueryTemplate("SELECT_ALL", q -> "SELECT " + QueryObject.constructColumnList(q) + " FROM " + q.getTableName() + " ORDER BY id");
+	}
+
+	@Test
+	public void readsOnlyTheProjectedColumns() throws Exception {
+		insertUsers(3);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		QueryObject query = new QueryObject("SELECT_ALL", "users");
+		List<Score> scores = table.getAllDatabaseObject(Score.class, query);
+		assertEquals(3, scores.size());
+		assertEquals(30, scores.get(2).score);
+		assertFalse(query.hasProjection());
+		assertEquals("SELECT * FROM users ORDER BY id", query.getQuery());
+	}
+
+}
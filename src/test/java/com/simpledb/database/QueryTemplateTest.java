@@ -0,0 +1,109 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class QueryTemplateTest {
+
+	private final AtomicInteger constructed = new AtomicInteger();
+	private final QueryTemplate template = new QueryTemplate(q -> {
+		constructed.incrementAndGet();
+		return "INSERT INTO " + q.getTableName() + " " + QueryObject.constructValuePlaceholderList(q.getValueList());
+	});
+
+	private static QueryObject insert(boolean bind, String... columns) {
+		QueryObject q = new QueryObject("INSERT", "users");
+		q.setBindParameters(bind);
+		for(String column : columns) q.addValue(column, "1");
+		return q;
+	}
+
+	@Test
+	public void bindQueriesReuseTheCompiledSql() {
+		String first = template.construct(insert(true, "id", "name"));
+		String second = template.construct(insert(true, "id", "name"));
+		assertSame(first, second);
+		assertEquals(1, constructed.get());
+		template.construct(insert(true, "id"));
+		assertEquals(2, constructed.get());
+	}
+
+	@Test
+	public void inlinedQueriesAreBuiltEveryTime() {
+		template.construct(insert(false, "id", "name"));
+		template.construct(insert(false, "id", "name"));
+		assertEquals(2, constructed.get());
+	}
+
+	@Test
+	public void compiledSqlIsCapped() {
+		for(int i = 0; i < QueryTemplate.MAX_COMPILED; ++i) template.construct(insert(true, "c" + i));
+		assertEquals(QueryTemplate.MAX_COMPILED, constructed.get());
+		//Column sets beyond the cap are built every time, the ones compiled before stay cached.
+		template.construct(insert(true, "extra"));
+		template.construct(insert(true, "extra"));
+		template.construct(insert(true, "c0"));
+		assertEquals(QueryTemplate.MAX_COMPILED + 2, constructed.get());
+	}
+
+	private static List<Pair<String, String>> pairs(String... columnsAndValues) {
+		List<Pair<String, String>> pairs = new ArrayList<>();
+		for(int i = 0; i < columnsAndValues.length; i += 2) pairs.add(new Pair<>(columnsAndValues[i], columnsAndValues[i + 1]));
+		return pairs;
+	}
+
+	/**
+	 * The String.format based implementation the StringBuilder version replaced.
+	 * */
+	private static String legacyValueList(List<Pair<String,String>> args) {
+		String out = "(%s) VALUES ('%s')";
+		String nextColumn = ",%s";
+		String nextValue = "','%s";
+		int valueCount = 0;
+		for(Pair<String, String> p : args) {
+			if(++valueCount > args.size() -1) nextColumn = nextValue = "";
+			out = String.format(out, p.getFirst() + nextColumn, p.getSecond() + nextValue);
+		}
+		if(valueCount == 0) out = String.format(out, "", "");
+		return out;
+	}
+
+	private static String legacyKWargList(List<Pair<String,String>> args, String concatinator) {
+		String out = "%s='%s'";
+		String next = concatinator + "%s='%s'";
+		int valueCount = 0;
+		for(Pair<String, String> p : args) {
+			if(++valueCount > args.size() -1) next = "";
+			out = String.format(out, p.getFirst(), p.getSecond()) + next;
+		}
+		if(valueCount == 0) out = String.format(out, "", "");
+		return out;
+	}
+
+	@Test
+	public void valueListsMatchTheFormerOutput() {
+		for(List<Pair<String, String>> args : Arrays.asList(Collections.<Pair<String, String>>emptyList(), pairs("id", "1"), pairs("id", "1", "name", "a b", "score", ""))) {
+			assertEquals(legacyValueList(args), QueryObject.constructValueList(args));
+			assertEquals(legacyKWargList(args, " AND "), QueryObject.constructKWargList(args, " AND "));
+			assertEquals(legacyKWargList(args, ","), QueryObject.constructKWargList(args, ","));
+		}
+		assertEquals("() VALUES ('')", QueryObject.constructValueList(Collections.emptyList()));
+		assertEquals("=''", QueryObject.constructKWargList(Collections.emptyList(), ","));
+	}
+
+	@Test
+	public void percentSignsAreCopiedVerbatim() {
+		List<Pair<String, String>> args = pairs("name", "100%s", "note", "50% off");
+		assertEquals("(name,note) VALUES ('100%s','50% off')", QueryObject.constructValueList(args));
+		assertEquals("name='100%s' AND note='50% off'", QueryObject.constructKWargList(args, " AND "));
+	}
+
+}
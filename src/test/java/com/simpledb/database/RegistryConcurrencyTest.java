@@ -0,0 +1,89 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+
+public class RegistryConcurrencyTest extends SqliteTestBase {
+
+	public static class Marker {
+		private final String value;
+
+		public Marker(String value) {
+			this.value = value;
+		}
+	}
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+		@DatabaseField(columnName = "score")
+		public int score;
+
+		@DatabaseObjectConstructor
+		public User() {}
+	}
+
+	/**
+	 * Readers build queries, look up converters and map rows while converters and constructors are registered.
+	 * Every reader has to see either the old or the new registry, never a broken one.
+	 * */
+	@Test
+	public void readsWhileRegistering() throws Exception {
+		insertUsers(5);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		AtomicBoolean writing = new AtomicBoolean(true);
+		AtomicInteger reads = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(4);
+		for(int r = 0; r < 4; ++r) {
+			int reader = r;
+			new Thread(() -> {
+				try {
+					while(writing.get()) {
+						assertNotNull(QueryObject.getConverter(Integer.class));
+						QueryObject insert = new QueryObject("INSERT", "users");
+						insert.setBindParameters(true);
+						insert.addValue("id", (Object)1);
+						assertEquals("INSERT INTO users (id) VALUES (?)", insert.getQuery());
+						if(reader == 0) assertEquals(5, table.getAllDatabaseObject(User.class, QueryObject.getQueryObject("SELECT * FROM users")).size());
+						reads.incrementAndGet();
+					}
+				} catch (Throwable e) {
+					errors.add(e);
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		//Keeps registering until the readers ran a while, so the writes overlap with the reads.
+		for(int i = 0; i < 200 || (reads.get() < 1000 && i < 100000); ++i) {
+			QueryObject.registerConverter(Marker.class, o -> ((Marker)o).value, Marker::new);
+			if(i < 200) QueryObject.addQueryConstructor("REGISTRY_" + i, q -> "SELECT 1");
+		}
+		writing.set(false);
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertEquals(List.of(), errors);
+		for(int i = 0; i < 200; ++i) {
+			QueryObject q = new QueryObject("REGISTRY_" + i, "users");
+			assertEquals("SELECT 1", q.getQuery());
+		}
+		assertNotNull(QueryObject.getConverter(Marker.class));
+	}
+
+}
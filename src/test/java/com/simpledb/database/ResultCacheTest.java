@@ -0,0 +1,33 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ResultCacheTest extends SqliteTestBase {
+
+	private static final String SELECT = "SELECT * FROM users ORDER BY id";
+
+	@Test
+	public void hitsUntilTheTableIsWritten() throws Exception {
+		insertUsers(5);
+		manager.enableResultCache(1 << 20, 60000, true);
+		assertEquals(5, rows(manager.getData(QueryObject.getQueryObject(SELECT))));
+		assertEquals(5, rows(manager.getData(QueryObject.getQueryObject(SELECT))));
+		assertEquals(1, manager.getResultCacheStats().getHits());
+		manager.executeUpdate(QueryObject.getQueryObject("DELETE FROM users WHERE id = 1"));
+		assertEquals(4, rows(manager.getData(QueryObject.getQueryObject(SELECT))));
+		assertEquals(1, manager.getResultCacheStats().getHits());
+	}
+
+	@Test
+	public void oversizedResultsAreReturnedButNotCached() throws Exception {
+		insertUsers(50);
+		manager.enableResultCache(512, 60000, true);
+		assertEquals(50, rows(manager.getData(QueryObject.getQueryObject(SELECT))));
+		assertEquals(50, rows(manager.getData(QueryObject.getQueryObject(SELECT))));
+		assertEquals(0, manager.getResultCacheStats().getHits());
+		assertEquals(2, manager.getResultCacheStats().getMisses());
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.simpledb.exceptions.QueryException;
+
+public class SlowQueryLogTest extends SqliteTestBase {
+
+	@Test
+	public void plansAreNotMeasured() throws Exception {
+		insertUsers(3);
+		SlowQueryLog log = new SlowQueryLog(manager, 0, 16);
+		log.setExplain(true);
+		StatementMetrics metrics = new StatementMetrics();
+		manager.addStatementListener(log);
+		manager.addStatementListener(metrics);
+		manager.getData(QueryObject.getQueryObject("SELECT * FROM users WHERE id = 1"));
+		SlowQuery entry = log.getEntries().get(0);
+		for(int i = 0; i < 100 && entry.getPlan() == null; ++i) Thread.sleep(50);
+		assertNotNull(entry.getPlan());
+		assertEquals(1, log.getRecordedCount());
+		assertEquals(1, metrics.getTotal().getCount());
+	}
+
+	@Test
+	public void redactedEntriesDropTheErrorMessage() throws Exception {
+		insertUsers(1);
+		SlowQueryLog log = new SlowQueryLog(manager, 0, 16);
+		manager.addStatementListener(log);
+		try {
+			manager.executeUpdate(QueryObject.getQueryObject("INSERT INTO users VALUES (1, 'secret', 0)"));
+			fail("The insert should have failed");
+		} catch (QueryException expected) {
+		}
+		SlowQuery entry = log.getEntries().get(0);
+		assertTrue(entry.isRedacted());
+		assertFalse(entry.getError() instanceof QueryException);
+		assertFalse(entry.getSql().contains("secret"));
+		assertTrue(entry.getError().getMessage().endsWith("message redacted"));
+	}
+
+}
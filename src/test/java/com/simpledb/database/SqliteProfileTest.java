@@ -0,0 +1,26 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SqliteProfileTest extends SqliteTestBase {
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setSqlitePerformanceProfile(true);
+	}
+
+	@Test
+	public void readsSeeCommittedWrites() throws Exception {
+		insertUsers(10);
+		assertEquals(10, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void pragmasRunOnTheWriter() throws Exception {
+		manager.executeQuery(QueryObject.getQueryObject("PRAGMA user_version = 7"));
+		assertEquals(7, count("PRAGMA user_version"));
+	}
+
+}
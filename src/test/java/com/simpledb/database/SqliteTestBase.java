@@ -0,0 +1,66 @@
+package com.simpledb.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Runs a test against a fresh SQLite database in a temporary folder.
+ * */
+public abstract class SqliteTestBase {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	protected DatabaseManager manager;
+
+	@BeforeClass
+	public static void registerQueries() {
+		QueryObject.addQueryTemplate("INSERT", q -> "INSERT INTO " + q.getTableName() + " " + QueryObject.constructValuePlaceholderList(q.getValueList()));
+	}
+
+	@Before
+	public void connect() throws Exception {
+		manager = new DatabaseManager();
+		DatabaseInfo info = DatabaseManager.getDatabaseInfo(folder.getRoot().getAbsolutePath(), "test");
+		configure(info);
+		manager.createDatabaseConnection(info);
+		manager.executeUpdate(QueryObject.getQueryObject("CREATE TABLE users (id INTEGER PRIMARY KEY, name TEXT, score INTEGER)"));
+	}
+
+	@After
+	public void close() throws Exception {
+		manager.closeConnection();
+	}
+
+	/**
+	 * Changes the settings before the connection is created.
+	 * */
+	protected void configure(DatabaseInfo info) {
+	}
+
+	protected void insertUsers(int count) throws Exception {
+		for(int i = 1; i <= count; ++i) {
+			manager.executeUpdate(QueryObject.getQueryObject("INSERT INTO users VALUES (" + i + ", 'user" + i + "', " + i * 10 + ")"));
+		}
+	}
+
+	protected int count(String sql) throws SQLException {
+		try(QueryResult result = manager.getResult(QueryObject.getQueryObject(sql))) {
+			result.next();
+			return result.getResultSet().getInt(1);
+		}
+	}
+
+	protected static int rows(ResultSet rs) throws SQLException {
+		int rows = 0;
+		while(rs.next()) ++rows;
+		return rows;
+	}
+
+}
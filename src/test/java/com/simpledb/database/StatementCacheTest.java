@@ -0,0 +1,94 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest extends SqliteTestBase {
+
+	private static final String A = "SELECT 1";
+	private static final String B = "SELECT 2";
+	private static final String C = "SELECT 3";
+
+	private Connection connection;
+	private StatementCacheStats stats;
+	private StatementCache cache;
+
+	@Before
+	public void open() throws Exception {
+		connection = DriverManager.getConnection("jdbc:sqlite:" + folder.newFile("cache.db").getAbsolutePath());
+		stats = new StatementCacheStats();
+		cache = new StatementCache(2, stats);
+	}
+
+	@After
+	public void closeCache() throws Exception {
+		cache.close();
+		connection.close();
+	}
+
+	@Test
+	public void returnedStatementIsReused() throws Exception {
+		PreparedStatement first = cache.checkout(connection, A);
+		cache.checkin(A, first);
+		assertSame(first, cache.checkout(connection, A));
+		assertEquals(1, stats.getHits());
+		assertEquals(1, stats.getMisses());
+	}
+
+	@Test
+	public void leastRecentlyUsedStatementIsEvictedAndClosed() throws Exception {
+		PreparedStatement a = cache.checkout(connection, A);
+		cache.checkin(A, a);
+		PreparedStatement b = cache.checkout(connection, B);
+		cache.checkin(B, b);
+		//A is used again, so B is now the least recently used statement.
+		cache.checkin(A, cache.checkout(connection, A));
+		PreparedStatement c = cache.checkout(connection, C);
+		cache.checkin(C, c);
+		assertTrue(b.isClosed());
+		assertFalse(a.isClosed());
+		assertFalse(c.isClosed());
+		assertEquals(1, stats.getEvictions());
+		assertNotSame(b, cache.checkout(connection, B));
+	}
+
+	@Test
+	public void statementInUseIsNotHandedOutTwice() throws Exception {
+		PreparedStatement first = cache.checkout(connection, A);
+		PreparedStatement second = cache.checkout(connection, A);
+		assertNotSame(first, second);
+		assertEquals(2, stats.getMisses());
+		try(ResultSet rs = first.executeQuery()) {
+			assertTrue(rs.next());
+			cache.checkin(A, second);
+			assertSame(second, cache.checkout(connection, A));
+			//The open result set of the first statement is untouched.
+			assertEquals(1, rs.getInt(1));
+		}
+		cache.checkin(A, first);
+		assertFalse(first.isClosed());
+	}
+
+	@Test
+	public void getDataUsesTheStatementCache() throws Exception {
+		insertUsers(3);
+		long hits = manager.getStatementCacheStats().getHits();
+		QueryObject query = QueryObject.getQueryObject("SELECT * FROM users ORDER BY id");
+		assertEquals(3, rows(manager.getData(query)));
+		assertEquals(3, rows(manager.getData(QueryObject.getQueryObject("SELECT * FROM users ORDER BY id"))));
+		assertEquals(hits + 1, manager.getStatementCacheStats().getHits());
+	}
+
+}
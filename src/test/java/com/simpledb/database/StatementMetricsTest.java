@@ -0,0 +1,90 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.simpledb.exceptions.QueryException;
+
+public class StatementMetricsTest extends SqliteTestBase {
+
+	private final List<StatementEvent> events = new ArrayList<>();
+
+	@Test
+	public void readPathsReportTheirRows() throws Exception {
+		insertUsers(5);
+		manager.addStatementListener(events::add);
+		DatabaseTable table = new DatabaseTable(manager, "users");
+		assertEquals(5, table.getIntColumn(QueryObject.getQueryObject("SELECT score FROM users"), "score").size());
+		assertEquals(5, events.get(0).getRows());
+		assertEquals(5, table.getColumn(String.class, QueryObject.getQueryObject("SELECT name FROM users"), "name").size());
+		assertEquals(5, events.get(1).getRows());
+		manager.getData(QueryObject.getQueryObject("SELECT * FROM users"));
+		assertEquals(5, events.get(2).getRows());
+	}
+
+	@Test
+	public void resetClearsTheTotal() throws Exception {
+		StatementMetrics metrics = new StatementMetrics();
+		manager.addStatementListener(metrics);
+		insertUsers(3);
+		assertEquals(3, metrics.getTotal().getCount());
+		metrics.reset();
+		assertEquals(0, metrics.getTotal().getCount());
+		assertEquals(0, metrics.getAllStats().size());
+	}
+
+	@Test
+	public void failingListenerGoesToTheExceptionHandle() throws Exception {
+		List<QueryException> handled = new ArrayList<>();
+		manager.addStatementListener(event -> {
+			throw new IllegalStateException("broken listener");
+		});
+		QueryObject insert = QueryObject.getQueryObject("INSERT INTO users VALUES (1, 'a', 0)");
+		insert.setAsyncExceptionHandle(handled::add);
+		manager.executeUpdate(insert);
+		assertEquals(1, count("SELECT count(*) FROM users"));
+		assertEquals(1, handled.size());
+		assertNotNull(handled.get(0).getSqlException().getCause());
+	}
+
+	@Test
+	public void coalescedInsertsReportTheirQueueWait() throws Exception {
+		List<StatementEvent> batches = new CopyOnWriteArrayList<>();
+		manager.addStatementListener(event -> {
+			if(event.getOperation().equals("executeBatch")) batches.add(event);
+		});
+		CountDownLatch latch = new CountDownLatch(1);
+		CompletableFuture<Integer> blocker = manager.submit(QueryObject.getQueryObject("SELECT 1"), rs -> {
+			try {
+				latch.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 0;
+		});
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for(int i = 1; i <= 3; ++i) {
+			QueryObject insert = new QueryObject("INSERT", "users");
+			insert.setBindParameters(true);
+			insert.addValue("id", (Object)i);
+			futures.add(manager.submit(insert));
+		}
+		Thread.sleep(100);
+		latch.countDown();
+		blocker.get(5, TimeUnit.SECONDS);
+		for(CompletableFuture<Integer> future : futures) future.get(5, TimeUnit.SECONDS);
+		assertEquals(1, batches.size());
+		assertTrue(batches.get(0).getQueueWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+}
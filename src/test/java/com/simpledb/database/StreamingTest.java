@@ -0,0 +1,91 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+import com.simpledb.exceptions.DatabaseStreamException;
+
+public class StreamingTest extends SqliteTestBase {
+
+	private static final AtomicInteger created = new AtomicInteger();
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+
+		@DatabaseObjectConstructor
+		public User() {
+			created.incrementAndGet();
+		}
+	}
+
+	private DatabaseTable table;
+
+	/**
+	 * The pool has a single connection, so a stream that does not give its connection back makes the next statement time out.
+	 * */
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setBorrowTimeout(1000);
+		info.setStreamFetchSize(10);
+	}
+
+	@Before
+	public void fill() throws Exception {
+		insertUsers(50);
+		table = new DatabaseTable(manager, "users");
+		created.set(0);
+	}
+
+	@Test
+	public void rowsAreMappedWhileTheStreamIsConsumed() throws Exception {
+		try(Stream<User> users = table.streamAllDatabaseObject(User.class, QueryObject.getQueryObject("SELECT * FROM users ORDER BY id"))) {
+			List<User> first = users.limit(5).collect(Collectors.toList());
+			assertEquals(5, first.size());
+			assertEquals("user5", first.get(4).name);
+		}
+		assertEquals(5, created.get());
+		assertEquals(50, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void exhaustedStreamReleasesTheConnection() throws Exception {
+		Stream<User> users = table.streamAllDatabaseObject(User.class, QueryObject.getQueryObject("SELECT * FROM users"));
+		assertEquals(50, users.count());
+		assertEquals(50, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void columnStreamSkipsNulls() throws Exception {
+		manager.executeUpdate(QueryObject.getQueryObject("INSERT INTO users VALUES (51, NULL, 0)"));
+		try(Stream<String> names = table.streamColumn(String.class, QueryObject.getQueryObject("SELECT name FROM users ORDER BY id"), "name")) {
+			assertEquals(50, names.count());
+		}
+	}
+
+	@Test
+	public void unreadableRowFailsTheStream() throws Exception {
+		try(Stream<User> users = table.streamAllDatabaseObject(User.class, QueryObject.getQueryObject("SELECT id FROM users"))) {
+			users.count();
+			fail("The name column is missing");
+		} catch (DatabaseStreamException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("name"));
+		}
+		assertEquals(50, count("SELECT count(*) FROM users"));
+	}
+
+}
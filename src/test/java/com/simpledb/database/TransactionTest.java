@@ -0,0 +1,74 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.sql.Savepoint;
+
+import org.junit.Test;
+
+public class TransactionTest extends SqliteTestBase {
+
+	@Override
+	protected void configure(DatabaseInfo info) {
+		info.setBorrowTimeout(1000);
+	}
+
+	@Test
+	public void commitsWhenTheCallbackReturns() throws Exception {
+		manager.inTransaction(tx -> {
+			insertUsers(3);
+			//The pinned connection sees its own uncommitted rows.
+			assertEquals(3, count("SELECT count(*) FROM users"));
+			return null;
+		});
+		assertEquals(3, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void rollsBackWhenTheCallbackThrows() throws Exception {
+		try {
+			manager.inTransaction(tx -> {
+				insertUsers(3);
+				throw new IllegalStateException("abort");
+			});
+			fail("The exception of the callback should be rethrown");
+		} catch (IllegalStateException expected) {
+		}
+		assertEquals(0, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void rollsBackWhenMarkedRollbackOnly() throws Exception {
+		manager.inTransaction(tx -> {
+			insertUsers(3);
+			tx.setRollbackOnly();
+			return null;
+		});
+		assertEquals(0, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void nestedTransactionsJoin() throws Exception {
+		manager.inTransaction(outer -> manager.inTransaction(inner -> {
+			assertSame(outer, inner);
+			insertUsers(1);
+			return null;
+		}));
+		assertEquals(1, count("SELECT count(*) FROM users"));
+	}
+
+	@Test
+	public void savepointsUndoPartOfTheTransaction() throws Exception {
+		manager.inTransaction(tx -> {
+			insertUsers(1);
+			Savepoint savepoint = tx.setSavepoint();
+			tx.executeUpdate(QueryObject.getQueryObject("INSERT INTO users VALUES (2, 'b', 0)"));
+			tx.rollback(savepoint);
+			return null;
+		});
+		assertEquals(1, count("SELECT count(*) FROM users"));
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.simpledb.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.simpledb.annotations.DatabaseField;
+import com.simpledb.annotations.DatabaseObject;
+
+public class UpsertTest extends SqliteTestBase {
+
+	@DatabaseObject
+	public static class User {
+		@DatabaseField(columnName = "id", key = true)
+		public int id;
+		@DatabaseField(columnName = "name")
+		public String name;
+		@DatabaseField(columnName = "score")
+		public int score;
+
+		public User(int id, String name, int score) {
+			this.id = id;
+			this.name = name;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * The same table and columns as {@link User} but keyed by name.
+	 * */
+	@DatabaseObject
+	public static class NamedUser {
+		@DatabaseField(columnName = "id")
+		public int id;
+		@DatabaseField(columnName = "name", key = true)
+		public String name;
+		@DatabaseField(columnName = "score")
+		public int score;
+
+		public NamedUser(int id, String name, int score) {
+			this.id = id;
+			this.name = name;
+			this.score = score;
+		}
+	}
+
+	@Test
+	public void upsertInsertsAndUpdates() throws Exception {
+		DatabaseTable users = new DatabaseTable(manager, "users");
+		users.upsert(new User(1, "a", 10));
+		users.upsert(new User(1, "b", 20));
+		assertEquals(1, count("SELECT count(*) FROM users"));
+		assertEquals(1, count("SELECT count(*) FROM users WHERE name = 'b' AND score = 20"));
+	}
+
+	@Test
+	public void upsertAllBatches() throws Exception {
+		insertUsers(2);
+		DatabaseTable users = new DatabaseTable(manager, "users");
+		users.upsertAll(Arrays.asList(new User(1, "x", 1), new User(2, "y", 2), new User(3, "z", 3)));
+		assertEquals(3, count("SELECT count(*) FROM users"));
+		assertEquals(1, count("SELECT count(*) FROM users WHERE id = 2 AND name = 'y'"));
+	}
+
+	@Test
+	public void keyColumnsComeFromTheValueType() throws Exception {
+		manager.executeUpdate(QueryObject.getQueryObject("CREATE UNIQUE INDEX users_name ON users(name)"));
+		DatabaseTable users = new DatabaseTable(manager, "users");
+		users.upsert(new User(1, "a", 10));
+		users.upsert(new NamedUser(2, "a", 20));
+		assertEquals(1, count("SELECT count(*) FROM users"));
+		assertEquals(1, count("SELECT count(*) FROM users WHERE id = 2 AND score = 20"));
+	}
+
+	@Test
+	public void mysqlDialect() throws Exception {
+		QueryObject byId = new QueryObject("UPSERT", "users");
+		byId.setBindParameters(true);
+		byId.addValues(new User(1, "a", 10));
+		byId.setDatabaseType(DatabaseType.MYSQL);
+		assertEquals("INSERT INTO users (id,name,score) VALUES (?,?,?) AS new ON DUPLICATE KEY UPDATE name=new.name,score=new.score", byId.getQuery());
+
+		QueryObject byName = new QueryObject("UPSERT", "users");
+		byName.setBindParameters(true);
+		byName.addValues(new NamedUser(1, "a", 10));
+		byName.setDatabaseType(DatabaseType.MYSQL);
+		assertNotEquals(byId.getQuery(), byName.getQuery());
+	}
+
+}